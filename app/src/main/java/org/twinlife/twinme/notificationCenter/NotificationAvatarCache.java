@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.notificationCenter;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.graphics.drawable.IconCompat;
+
+import org.twinlife.twinlife.ImageId;
+import org.twinlife.twinlife.ImageService;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.utils.CommonUtils;
+
+import java.util.UUID;
+
+/**
+ * Cache of the avatars displayed by the notifications.
+ *
+ * A notification for a group message needs the avatars of the member and of the group, and each message of a
+ * conversation needs them again: the thumbnails are kept in a cache bounded by their size and keyed by the image
+ * id so that they are not read from the image service for each message.  The adaptive icons built from the
+ * avatars for the notification persons are also kept so that the bitmap is not cropped again, and they are
+ * dropped with their avatar.  The avatar of a contact is removed from the cache when the contact is updated or
+ * deleted.  This class is thread safe.
+ */
+final class NotificationAvatarCache {
+    private static final String LOG_TAG = "NotificationAvatarCache";
+    private static final boolean DEBUG = false;
+
+    private static final int MAX_AVATAR_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_ICONS = 32;
+    private static final int MAX_ORIGINATORS = 256;
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    private final LruCache<ImageId, Bitmap> mAvatars = new LruCache<ImageId, Bitmap>(MAX_AVATAR_SIZE) {
+        @Override
+        protected int sizeOf(@NonNull ImageId avatarId, @NonNull Bitmap avatar) {
+
+            return avatar.getAllocationByteCount();
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, @NonNull ImageId avatarId, @NonNull Bitmap oldAvatar, @Nullable Bitmap newAvatar) {
+
+            // Drop the icon with the avatar so that neither the bitmap nor its icon outlive the avatar cache.
+            if (oldAvatar != newAvatar) {
+                mIcons.remove(oldAvatar);
+            }
+        }
+    };
+    // Icons are keyed by the bitmap instance: the bitmaps come from the avatar cache or are the default avatars.
+    private final LruCache<Bitmap, IconCompat> mIcons = new LruCache<>(MAX_ICONS);
+    private final LruCache<UUID, ImageId> mOriginatorAvatars = new LruCache<>(MAX_ORIGINATORS);
+
+    NotificationAvatarCache(@NonNull TwinmeContext twinmeContext) {
+
+        mTwinmeContext = twinmeContext;
+    }
+
+    /**
+     * Get the avatar thumbnail from the cache or from the image service.
+     *
+     * @param originatorId the contact or group which uses the avatar or null.
+     * @param avatarId the avatar id.
+     * @return the avatar or null if it is not found.
+     */
+    @Nullable
+    Bitmap getAvatar(@Nullable UUID originatorId, @NonNull ImageId avatarId) {
+
+        if (originatorId != null) {
+            mOriginatorAvatars.put(originatorId, avatarId);
+        }
+
+        Bitmap avatar = mAvatars.get(avatarId);
+        if (avatar == null) {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "load avatar " + avatarId);
+            }
+
+            avatar = mTwinmeContext.getImageService().getImage(avatarId, ImageService.Kind.THUMBNAIL);
+            if (avatar != null) {
+                mAvatars.put(avatarId, avatar);
+            }
+        }
+
+        return avatar;
+    }
+
+    /**
+     * Get the adaptive icon of the avatar for a notification person.
+     *
+     * @param avatar the avatar.
+     * @return the icon.
+     */
+    @Nullable
+    IconCompat getIcon(@NonNull Bitmap avatar) {
+
+        IconCompat icon = mIcons.get(avatar);
+        if (icon == null) {
+            icon = CommonUtils.bitmapToAdaptiveIcon(avatar);
+            if (icon != null) {
+                mIcons.put(avatar, icon);
+            }
+        }
+
+        return icon;
+    }
+
+    /**
+     * The avatar of the contact or group was changed or the contact was removed: forget its avatar.
+     *
+     * @param originatorId the contact or group id.
+     */
+    void invalidate(@NonNull UUID originatorId) {
+
+        final ImageId avatarId = mOriginatorAvatars.remove(originatorId);
+        if (avatarId != null) {
+            mAvatars.remove(avatarId);
+        }
+    }
+}
@@ -26,7 +26,7 @@ import android.media.AudioAttributes;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-import android.service.notification.StatusBarNotification;
+import android.os.SystemClock;
 import android.text.SpannableStringBuilder;
 import android.text.TextUtils;
 import android.util.Log;
@@ -94,13 +94,15 @@ import org.twinlife.twinme.utils.CommonUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class NotificationCenterImpl implements NotificationCenter {
@@ -145,6 +147,15 @@ public class NotificationCenterImpl implements NotificationCenter {
 
     private static final String DESCRIPTOR_ID_EXTRA = "DESCRIPTOR_ID";
 
+    // Minimum delay between two updates of a conversation notification or of the summary notification:
+    // the messages received during that delay are posted together.
+    private static final long NOTIFICATION_UPDATE_DELAY = 500;
+
+    // The system notification IDs are reserved by blocks saved in the preferences: a new block is reserved when
+    // half of the current block is allocated.  The IDs below FIRST_NOTIFICATION_ID are used by fixed notifications.
+    private static final int FIRST_NOTIFICATION_ID = 10;
+    private static final int NOTIFICATION_ID_BLOCK = 1000;
+
     private static class SystemNotification {
 
         UUID sessionId;
@@ -157,10 +168,28 @@ public class NotificationCenterImpl implements NotificationCenter {
         }
     }
 
+    // The fields of a message notification are protected by the notification instance lock.
     private static class NewMessageNotification extends SystemNotification {
 
         final AtomicInteger count = new AtomicInteger(0);
 
+        // The last notification posted for the conversation with its messages: the notification is updated
+        // from them instead of reading the active notifications from the notification manager.
+        @Nullable
+        android.app.Notification notification;
+        @Nullable
+        NotificationCompat.MessagingStyle messagingStyle;
+        // The number of messages of this notification counted by the summary notification.
+        int summaryCount;
+        boolean removed;
+
+        // Messages added since the last post, waiting for the end of the update delay.
+        boolean postPending;
+        boolean pendingSilent;
+        @Nullable
+        IconCompat pendingLargeIcon;
+        long lastPostTime;
+
         NewMessageNotification(int id, UUID sessionId) {
 
             super(id, sessionId);
@@ -173,8 +202,9 @@ public class NotificationCenterImpl implements NotificationCenter {
 
     private final NotificationManagerCompat mNotificationManager;
     private final Badger mBadger;
+    private final NotificationAvatarCache mAvatarCache;
     private final int[] mBaseIds;
-    private int mNotificationId;
+    private final AtomicInteger mNotificationId;
     private String mAudioChannel;
     private String mVideoChannel;
     private String mMissedCallChannel;
@@ -182,9 +212,18 @@ public class NotificationCenterImpl implements NotificationCenter {
     private String mGroupChannel;
     private String mContactChannel;
     private String mDefaultChannel;
-    @SuppressLint("UseSparseArrays")
-    private final HashMap<UUID, SystemNotification> mConversationId2Notifications = new HashMap<>();
-    private int mLastNotificationId;
+    private final ConcurrentHashMap<UUID, SystemNotification> mConversationId2Notifications = new ConcurrentHashMap<>();
+    private final AtomicInteger mSummaryMessageCount = new AtomicInteger(0);
+    // Protects mSummaryPending and mSummaryPostTime.
+    private final Object mSummaryLock = new Object();
+    private boolean mSummaryPending;
+    private long mSummaryPostTime;
+    // The end of the last block of notification IDs reserved in the preferences.
+    private final AtomicInteger mReservedNotificationId;
+    // The message notifications and their summary are posted and cancelled from this thread: they are posted
+    // in order without holding a lock during the notification manager calls, so that the call notifications
+    // never wait for them.  The reserved notification IDs are also saved from this thread.
+    private final ExecutorService mMessageExecutor = Executors.newSingleThreadExecutor();
     @NonNull
     private final SharedPreferences mSharedPreferences;
     @Nullable
@@ -199,13 +238,20 @@ public class NotificationCenterImpl implements NotificationCenter {
         mTwinmeContext = twinmeContext;
         mApplication = application;
         mBaseIds = new int[CHANNEL_COUNT];
+        mAvatarCache = new NotificationAvatarCache(twinmeContext);
 
         // Make the system notification ID persistent.
-        // Allocate them in sequences of 10 and save in the preference the last sequence allocated.
-        // The first available ID when we restart is the last sequence number.
+        // Allocate them in blocks and save in the preference the end of the last block reserved.
+        // The first available ID when we restart is the end of that block: the IDs not used by the previous
+        // run are skipped.  Restart from the first ID long before the sequence overflows.
         mSharedPreferences = mApplication.getSharedPreferences(NOTIFICATION_CENTER_PREFERENCES, android.content.Context.MODE_PRIVATE);
-        mLastNotificationId = mSharedPreferences.getInt(NOTIFICATION_SEQUENCE, 10);
-        mNotificationId = mLastNotificationId;
+        int firstNotificationId = mSharedPreferences.getInt(NOTIFICATION_SEQUENCE, FIRST_NOTIFICATION_ID);
+        if (firstNotificationId < FIRST_NOTIFICATION_ID || firstNotificationId > Integer.MAX_VALUE / 2) {
+            firstNotificationId = FIRST_NOTIFICATION_ID;
+        }
+        mNotificationId = new AtomicInteger(firstNotificationId);
+        mReservedNotificationId = new AtomicInteger(firstNotificationId);
+        reserveNotificationIds(firstNotificationId);
 
         mNotificationManager = NotificationManagerCompat.from(mApplication);
 
@@ -455,27 +501,26 @@ public class NotificationCenterImpl implements NotificationCenter {
             Log.d(LOG_TAG, "acknowledgeReply: conversationId=" + conversationId + " reply=" + reply);
         }
 
-        synchronized (this) {
-            SystemNotification systemNotification = mConversationId2Notifications.get(conversationId);
-
-            if (systemNotification != null) {
-
-                for (StatusBarNotification statusBarNotification : mNotificationManager.getActiveNotifications()) {
-                    if (statusBarNotification.getId() == systemNotification.id) {
+        SystemNotification systemNotification = mConversationId2Notifications.get(conversationId);
 
-                        if (reply == null) {
-                            // Even if we have no reply we post the notification again to let Android know it can hide the notification.
-                            NotificationCompat.Builder builder = new NotificationCompat.Builder(mApplication, statusBarNotification.getNotification())
-                                    .setSilent(true);
-                            postNotification(systemNotification.id, builder.build());
-                        } else {
-                            NotificationCompat.MessagingStyle.Message message = new NotificationCompat.MessagingStyle.Message(reply, System.currentTimeMillis(), (Person) null);
-                            updateMessageNotification(systemNotification.id, message, null, true);
-                        }
+        if (systemNotification instanceof NewMessageNotification) {
+            NewMessageNotification messageNotification = (NewMessageNotification) systemNotification;
 
+            if (reply == null) {
+                synchronized (messageNotification) {
+                    if (messageNotification.notification == null) {
                         return;
                     }
+
+                    // Even if we have no reply we post the notification again to let Android know it can hide the notification.
+                    messageNotification.notification = new NotificationCompat.Builder(mApplication, messageNotification.notification)
+                            .setSilent(true)
+                            .build();
                 }
+                postLastMessageNotification(messageNotification);
+            } else {
+                NotificationCompat.MessagingStyle.Message message = new NotificationCompat.MessagingStyle.Message(reply, System.currentTimeMillis(), (Person) null);
+                updateMessageNotification(messageNotification, message, null, true);
             }
         }
     }
@@ -543,93 +588,252 @@ public class NotificationCenterImpl implements NotificationCenter {
             Log.d(LOG_TAG, "onMessageNotificationDeleted: conversationId=" + conversationId);
         }
 
-        synchronized (this) {
-            mConversationId2Notifications.remove(conversationId);
-            updateMessageSummary();
-        }
+        removeMessageNotification(conversationId);
+        updateMessageSummary();
     }
 
 
-    private synchronized boolean updateMessageNotification(int notificationId, @NonNull NotificationCompat.MessagingStyle.Message message, @Nullable Person sender, boolean silent) {
+    private boolean updateMessageNotification(@NonNull NewMessageNotification messageNotification, @NonNull NotificationCompat.MessagingStyle.Message message, @Nullable Person sender, boolean silent) {
         if (DEBUG) {
-            Log.d(LOG_TAG, "updateMessageNotification: notificationId=" + notificationId + " message=" + message + " silent=" + silent);
+            Log.d(LOG_TAG, "updateMessageNotification: notificationId=" + messageNotification.id + " message=" + message + " silent=" + silent);
         }
 
-        String descriptorId = message.getExtras().getString(DESCRIPTOR_ID_EXTRA);
+        synchronized (messageNotification) {
+            final android.app.Notification notification = messageNotification.notification;
+            final NotificationCompat.MessagingStyle messagingStyle = messageNotification.messagingStyle;
+            if (notification == null || messagingStyle == null) {
 
-        for (StatusBarNotification statusBarNotification : mNotificationManager.getActiveNotifications()) {
-            if (statusBarNotification.getId() == notificationId) {
-                NotificationCompat.MessagingStyle messagingStyle = NotificationCompat.MessagingStyle.extractMessagingStyleFromNotification(statusBarNotification.getNotification());
-                if (messagingStyle != null) {
+                return false;
+            }
 
-                    List<NotificationCompat.MessagingStyle.Message> messages = messagingStyle.getMessages();
+            String descriptorId = message.getExtras().getString(DESCRIPTOR_ID_EXTRA);
+            List<NotificationCompat.MessagingStyle.Message> messages = messagingStyle.getMessages();
 
-                    // If there is already a message with the same descriptor ID, the new message is actually and edit =>
-                    // remove the original message and add the edited one.
-                    NotificationCompat.MessagingStyle.Message originalMessage = null;
-                    for (NotificationCompat.MessagingStyle.Message msg : messages) {
-                        String dId = msg.getExtras().getString(DESCRIPTOR_ID_EXTRA);
+            // If there is already a message with the same descriptor ID, the new message is actually and edit =>
+            // remove the original message and add the edited one.
+            NotificationCompat.MessagingStyle.Message originalMessage = null;
+            for (NotificationCompat.MessagingStyle.Message msg : messages) {
+                String dId = msg.getExtras().getString(DESCRIPTOR_ID_EXTRA);
 
-                        if (descriptorId != null && descriptorId.equals(dId)) {
-                            originalMessage = msg;
-                        }
-                    }
+                if (descriptorId != null && descriptorId.equals(dId)) {
+                    originalMessage = msg;
+                }
+            }
 
-                    if (originalMessage != null) {
-                        messages.remove(originalMessage);
-                        Bundle extras = message.getExtras();
-                        message = new NotificationCompat.MessagingStyle.Message(message.getText(), message.getTimestamp(), message.getPerson());
-                        message.getExtras().putAll(extras);
+            if (originalMessage != null) {
+                messages.remove(originalMessage);
+                Bundle extras = message.getExtras();
+                message = new NotificationCompat.MessagingStyle.Message(message.getText(), message.getTimestamp(), message.getPerson());
+                message.getExtras().putAll(extras);
 
-                        // Don't ring/vibrate for edited messages
-                        silent = true;
-                    }
+                // Don't ring/vibrate for edited messages
+                silent = true;
+            }
 
-                    messagingStyle.addMessage(message);
+            messagingStyle.addMessage(message);
 
-                    try {
-                        // In case messages arrived out of order, or the new message is an edit.
-                        Collections.sort(messages, (m1, m2) -> Long.compare(m1.getTimestamp(), m2.getTimestamp()));
-                    } catch (UnsupportedOperationException e) {
-                        // Should not happen as messagingStyle.getMessages() should return an ArrayList.
-                    }
+            try {
+                // In case messages arrived out of order, or the new message is an edit.
+                Collections.sort(messages, (m1, m2) -> Long.compare(m1.getTimestamp(), m2.getTimestamp()));
 
-                    NotificationCompat.Builder builder = new NotificationCompat.Builder(mApplication, statusBarNotification.getNotification())
-                            .setSilent(silent)
-                            .setNumber(messages.size())
-                            .setStyle(messagingStyle);
+                // Keep only the most recent messages as the MessagingStyle does when a message is added.
+                while (messages.size() > NotificationCompat.MessagingStyle.MAXIMUM_RETAINED_MESSAGES) {
+                    messages.remove(0);
+                }
+            } catch (UnsupportedOperationException e) {
+                // Should not happen as messagingStyle.getMessages() should return an ArrayList.
+            }
 
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                        if (sender != null && sender.getIcon() != null) {
-                            builder.setLargeIcon(sender.getIcon().toIcon(mApplication));
-                        }
-                    }
+            // The notification is posted once for the messages received during the update delay:
+            // it rings if one of them rings.
+            messageNotification.pendingSilent = messageNotification.postPending ? messageNotification.pendingSilent && silent : silent;
+            if (sender != null && sender.getIcon() != null) {
+                messageNotification.pendingLargeIcon = sender.getIcon();
+            }
+            updateSummaryCount(messageNotification);
+        }
+        scheduleMessageNotification(messageNotification);
+        return true;
+    }
+
+    /**
+     * Post the conversation notification now if it was not posted during the update delay, otherwise
+     * post it at the end of the delay with all the messages received in the meantime.
+     */
+    private void scheduleMessageNotification(@NonNull NewMessageNotification messageNotification) {
+
+        final long delay;
+        synchronized (messageNotification) {
+            if (messageNotification.postPending) {
+                return;
+            }
+
+            messageNotification.postPending = true;
+            delay = messageNotification.lastPostTime + NOTIFICATION_UPDATE_DELAY - SystemClock.elapsedRealtime();
+        }
+
+        if (delay <= 0) {
+            mMessageExecutor.execute(() -> postMessageNotification(messageNotification));
+        } else {
+            mTwinmeContext.getJobService().schedule(() -> mMessageExecutor.execute(() -> postMessageNotification(messageNotification)), delay);
+        }
+    }
+
+    /**
+     * Build the conversation notification with the messages received during the update delay and post it.
+     * Must be called from the message executor.
+     */
+    private void postMessageNotification(@NonNull NewMessageNotification messageNotification) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "postMessageNotification: notificationId=" + messageNotification.id);
+        }
 
-                    postNotification(statusBarNotification.getId(), builder.build());
-                    updateMessageSummary();
-                    return true;
+        final android.app.Notification newNotification;
+        synchronized (messageNotification) {
+            messageNotification.postPending = false;
+            final android.app.Notification notification = messageNotification.notification;
+            final NotificationCompat.MessagingStyle messagingStyle = messageNotification.messagingStyle;
+            if (messageNotification.removed || notification == null || messagingStyle == null) {
+                return;
+            }
+
+            NotificationCompat.Builder builder = new NotificationCompat.Builder(mApplication, notification)
+                    .setSilent(messageNotification.pendingSilent)
+                    .setNumber(messagingStyle.getMessages().size())
+                    .setStyle(messagingStyle);
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                if (messageNotification.pendingLargeIcon != null) {
+                    builder.setLargeIcon(messageNotification.pendingLargeIcon.toIcon(mApplication));
                 }
             }
+            messageNotification.pendingLargeIcon = null;
+
+            newNotification = builder.build();
+            setMessageNotification(messageNotification, newNotification, messagingStyle);
         }
 
-        return false;
+        postNotification(messageNotification.id, newNotification);
+        updateMessageSummary();
     }
 
-    private synchronized void updateMessageSummary() {
-        int nbMessages = 0;
-        for (StatusBarNotification statusBarNotification : mNotificationManager.getActiveNotifications()) {
-            NotificationCompat.MessagingStyle messagingStyle = NotificationCompat.MessagingStyle.extractMessagingStyleFromNotification(statusBarNotification.getNotification());
+    /**
+     * Post the last notification recorded for the conversation from the message executor.
+     */
+    private void postLastMessageNotification(@NonNull NewMessageNotification messageNotification) {
 
-            if (messagingStyle != null) {
-                for (NotificationCompat.MessagingStyle.Message message : messagingStyle.getMessages()) {
-                    if (message.getPerson() != null && message.getPerson().getUri() != null) {
-                        nbMessages++;
-                    }
+        mMessageExecutor.execute(() -> {
+            final android.app.Notification notification;
+            synchronized (messageNotification) {
+                notification = messageNotification.notification;
+                if (messageNotification.removed || notification == null) {
+                    return;
                 }
             }
+
+            postNotification(messageNotification.id, notification);
+        });
+    }
+
+    /**
+     * Record the notification posted for a conversation and update the number of messages of the summary.
+     * Must be called with the notification lock held.
+     */
+    private void setMessageNotification(@NonNull NewMessageNotification messageNotification, @NonNull android.app.Notification notification,
+                                                     @Nullable NotificationCompat.MessagingStyle messagingStyle) {
+
+        messageNotification.notification = notification;
+        messageNotification.messagingStyle = messagingStyle;
+        messageNotification.lastPostTime = SystemClock.elapsedRealtime();
+        updateSummaryCount(messageNotification);
+    }
+
+    // Must be called with the notification lock held.
+    private void updateSummaryCount(@NonNull NewMessageNotification messageNotification) {
+
+        if (!messageNotification.removed) {
+            final int summaryCount = countSummaryMessages(messageNotification.messagingStyle);
+            mSummaryMessageCount.addAndGet(summaryCount - messageNotification.summaryCount);
+            messageNotification.summaryCount = summaryCount;
         }
+    }
+
+    /**
+     * Forget the notification of the conversation and remove its messages from the summary.
+     */
+    private void removeMessageNotification(@NonNull UUID conversationId) {
+
+        final SystemNotification systemNotification = mConversationId2Notifications.remove(conversationId);
+        if (systemNotification instanceof NewMessageNotification) {
+            final NewMessageNotification messageNotification = (NewMessageNotification) systemNotification;
+            synchronized (messageNotification) {
+                messageNotification.removed = true;
+                mSummaryMessageCount.addAndGet(-messageNotification.summaryCount);
+                messageNotification.summaryCount = 0;
+            }
+        }
+    }
+
+    private static int countSummaryMessages(@Nullable NotificationCompat.MessagingStyle messagingStyle) {
 
-        if (nbMessages == 0) {
+        if (messagingStyle == null) {
+            return 0;
+        }
+
+        int nbMessages = 0;
+        for (NotificationCompat.MessagingStyle.Message message : messagingStyle.getMessages()) {
+            if (message.getPerson() != null && message.getPerson().getUri() != null) {
+                nbMessages++;
+            }
+        }
+
+        return nbMessages;
+    }
+
+    /**
+     * Update the summary notification now if it was not posted during the update delay, otherwise
+     * update it at the end of the delay.
+     */
+    private void updateMessageSummary() {
+
+        if (mSummaryMessageCount.get() <= 0) {
+            mMessageExecutor.execute(this::postMessageSummary);
+            return;
+        }
+
+        final long delay;
+        synchronized (mSummaryLock) {
+            if (mSummaryPending) {
+                return;
+            }
+
+            mSummaryPending = true;
+            delay = mSummaryPostTime + NOTIFICATION_UPDATE_DELAY - SystemClock.elapsedRealtime();
+        }
+
+        if (delay <= 0) {
+            mMessageExecutor.execute(this::postMessageSummary);
+        } else {
+            mTwinmeContext.getJobService().schedule(() -> mMessageExecutor.execute(this::postMessageSummary), delay);
+        }
+    }
+
+    /**
+     * Post the summary notification with the current number of messages or cancel it when there is no message.
+     * Must be called from the message executor.
+     */
+    private void postMessageSummary() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "postMessageSummary");
+        }
+
+        final int nbMessages = mSummaryMessageCount.get();
+        synchronized (mSummaryLock) {
+            mSummaryPending = false;
+            mSummaryPostTime = SystemClock.elapsedRealtime();
+        }
+
+        if (nbMessages <= 0) {
             mNotificationManager.cancel(MESSAGE_SUMMARY_NOTIFICATION_ID);
         } else {
             SpannableStringBuilder summaryLabel = new SpannableStringBuilder(nbMessages + " " + mApplication.getString(R.string.notification_channel_message_title));
@@ -698,29 +902,22 @@ public class NotificationCenterImpl implements NotificationCenter {
             senderAvatar = getAvatar(contact);
         }
 
-        int notificationId;
         NewMessageNotification newMessageNotification = null;
-        synchronized (this) {
-            SystemNotification notification = mConversationId2Notifications.get(conversation.getId());
-            if (notification != null) {
-                newMessageNotification = (NewMessageNotification) notification;
-            }
+        SystemNotification systemNotification = mConversationId2Notifications.get(conversation.getId());
+        if (systemNotification == null) {
+            newMessageNotification = new NewMessageNotification(newNotificationId(), sessionId);
+            systemNotification = mConversationId2Notifications.putIfAbsent(conversation.getId(), newMessageNotification);
         }
         boolean wasNotified = false;
-        if (newMessageNotification == null) {
-            notificationId = newNotificationId();
-            newMessageNotification = new NewMessageNotification(notificationId, sessionId);
-            synchronized (this) {
-                mConversationId2Notifications.put(conversation.getId(), newMessageNotification);
-            }
-        } else {
-            notificationId = newMessageNotification.id;
+        if (systemNotification != null) {
+            newMessageNotification = (NewMessageNotification) systemNotification;
             if (sessionId != null && sessionId.equals(newMessageNotification.sessionId)) {
                 wasNotified = true;
             } else if (sessionId != null) {
                 newMessageNotification.sessionId = sessionId;
             }
         }
+        final int notificationId = newMessageNotification.id;
         int count;
 
         // System push notification that was already notified, we can ignore.
@@ -864,7 +1061,7 @@ public class NotificationCenterImpl implements NotificationCenter {
 
             Person sender = new Person.Builder()
                     .setKey(contact.getShortcutId())
-                    .setIcon(CommonUtils.bitmapToAdaptiveIcon(displayNotificationSender ? senderAvatar : mTwinmeApplication.getAnonymousAvatar()))
+                    .setIcon(mAvatarCache.getIcon(displayNotificationSender ? senderAvatar : mTwinmeApplication.getAnonymousAvatar()))
                     .setName(displayNotificationSender && !TextUtils.isEmpty(senderName) ? senderName : mTwinmeApplication.getAnonymousName())
                     .build();
 
@@ -889,7 +1086,7 @@ public class NotificationCenterImpl implements NotificationCenter {
                 message.getExtras().putString(DESCRIPTOR_ID_EXTRA, descriptor.getDescriptorId().toString());
             }
 
-            if (updateMessageNotification(notificationId, message, sender, false)) {
+            if (updateMessageNotification(newMessageNotification, message, sender, false)) {
                 // There was an existing notification for this conversation and we updated it, nothing left to do.
                 return;
             }
@@ -959,15 +1156,16 @@ public class NotificationCenterImpl implements NotificationCenter {
             notificationBuilder.setVibrate(pattern);
         }
 
+        NotificationCompat.MessagingStyle messagingStyle = null;
         if (message != null) {
             boolean isGroup = contact.isGroup() || contact instanceof GroupMember;
 
             IconCompat youAvatar = null;
 
             if (displayNotificationSender && contact.getIdentityAvatarId() != null) {
-                Bitmap avatar = mTwinmeContext.getImageService().getImage(contact.getIdentityAvatarId(), ImageService.Kind.THUMBNAIL);
+                Bitmap avatar = mAvatarCache.getAvatar(null, contact.getIdentityAvatarId());
                 if (avatar != null) {
-                    youAvatar = CommonUtils.bitmapToAdaptiveIcon(avatar);
+                    youAvatar = mAvatarCache.getIcon(avatar);
                 }
             }
 
@@ -980,7 +1178,7 @@ public class NotificationCenterImpl implements NotificationCenter {
                     .setIcon(youAvatar)
                     .build();
 
-            NotificationCompat.MessagingStyle messagingStyle = new NotificationCompat.MessagingStyle(you).setGroupConversation(isGroup);
+            messagingStyle = new NotificationCompat.MessagingStyle(you).setGroupConversation(isGroup);
             messagingStyle.addMessage(message);
 
             if (isGroup && displayNotificationSender) {
@@ -1044,7 +1242,11 @@ public class NotificationCenterImpl implements NotificationCenter {
             }
         }
 
-        postNotification(notificationId, notificationBuilder.build());
+        final android.app.Notification newNotification = notificationBuilder.build();
+        synchronized (newMessageNotification) {
+            setMessageNotification(newMessageNotification, newNotification, messagingStyle);
+        }
+        postLastMessageNotification(newMessageNotification);
         updateMessageSummary();
     }
 
@@ -1111,6 +1313,7 @@ public class NotificationCenterImpl implements NotificationCenter {
 
         String callerName = contact.getName();
         Bitmap callerAvatar = getAvatar(contact);
+        mAvatarCache.invalidate(contact.getId());
 
         int notificationId;
         notificationId = newNotificationId();
@@ -1157,6 +1360,10 @@ public class NotificationCenterImpl implements NotificationCenter {
             Log.d(LOG_TAG, "onUpdateContact: contact=" + contact + " updatedAttributes=" + previousAttributes);
         }
 
+        if (AttributeNameValue.getAttribute(previousAttributes, Twincode.AVATAR_ID) != null) {
+            mAvatarCache.invalidate(contact.getId());
+        }
+
         String callerName = contact.getName();
         Bitmap callerAvatar = getAvatar(contact);
 
@@ -1224,11 +1431,9 @@ public class NotificationCenterImpl implements NotificationCenter {
             Log.d(LOG_TAG, "onSetActiveConversation: conversation=" + conversation);
         }
 
-        synchronized (this) {
-            mConversationId2Notifications.remove(conversation.getId());
-            if (mConversationId2Notifications.isEmpty()) {
-                mNotificationManager.cancel(MESSAGE_SUMMARY_NOTIFICATION_ID);
-            }
+        removeMessageNotification(conversation.getId());
+        if (mConversationId2Notifications.isEmpty()) {
+            mMessageExecutor.execute(() -> mNotificationManager.cancel(MESSAGE_SUMMARY_NOTIFICATION_ID));
         }
     }
 
@@ -1259,13 +1464,11 @@ public class NotificationCenterImpl implements NotificationCenter {
         SystemNotification systemNotification = null;
 
         // Find the cached notification data
-        synchronized (this) {
-            for (Map.Entry<UUID, SystemNotification> entry : mConversationId2Notifications.entrySet()) {
-                if (entry.getValue().id == notificationId) {
-                    tmpCID = entry.getKey();
-                    systemNotification = entry.getValue();
-                    break;
-                }
+        for (Map.Entry<UUID, SystemNotification> entry : mConversationId2Notifications.entrySet()) {
+            if (entry.getValue().id == notificationId) {
+                tmpCID = entry.getKey();
+                systemNotification = entry.getValue();
+                break;
             }
         }
         final UUID conversationId = tmpCID;
@@ -1288,11 +1491,9 @@ public class NotificationCenterImpl implements NotificationCenter {
         mTwinmeContext.findNotifications(filter, -1, notifs -> {
 
             if (notifs.isEmpty()) {
-                synchronized (this) {
-                    mConversationId2Notifications.remove(conversationId);
-                    mNotificationManager.cancel(notificationId);
-                    updateMessageSummary();
-                }
+                removeMessageNotification(conversationId);
+                mMessageExecutor.execute(() -> mNotificationManager.cancel(notificationId));
+                updateMessageSummary();
                 return;
             }
 
@@ -1303,35 +1504,32 @@ public class NotificationCenterImpl implements NotificationCenter {
                 }
             }
 
-            synchronized (this) {
-                for (StatusBarNotification activeNotification : mNotificationManager.getActiveNotifications()) {
-                    if (activeNotification.getId() == msgNotif.id) {
-                        NotificationCompat.MessagingStyle messagingStyle = NotificationCompat.MessagingStyle.extractMessagingStyleFromNotification(activeNotification.getNotification());
-                        if (messagingStyle != null) {
-                            // MessagingStyle.getMessages() returns its actual Message ArrayList so we can simply remove the messages through the iterator.
-                            Iterator<NotificationCompat.MessagingStyle.Message> msgIterator = messagingStyle.getMessages().iterator();
-
-                            while (msgIterator.hasNext()) {
-                                ConversationService.DescriptorId msgDescriptorId = ConversationService.DescriptorId.fromString(msgIterator.next().getExtras().getString(DESCRIPTOR_ID_EXTRA));
+            synchronized (msgNotif) {
+                final android.app.Notification notification = msgNotif.notification;
+                final NotificationCompat.MessagingStyle messagingStyle = msgNotif.messagingStyle;
+                if (notification != null && messagingStyle != null) {
+                    // MessagingStyle.getMessages() returns its actual Message ArrayList so we can simply remove the messages through the iterator.
+                    Iterator<NotificationCompat.MessagingStyle.Message> msgIterator = messagingStyle.getMessages().iterator();
 
-                                if (msgDescriptorId != null && !descriptorIds.contains(msgDescriptorId)) {
-                                    msgIterator.remove();
-                                }
-                            }
+                    while (msgIterator.hasNext()) {
+                        ConversationService.DescriptorId msgDescriptorId = ConversationService.DescriptorId.fromString(msgIterator.next().getExtras().getString(DESCRIPTOR_ID_EXTRA));
 
-                            android.app.Notification notif = new NotificationCompat.Builder(mApplication, activeNotification.getNotification())
-                                    .setSilent(true)
-                                    .setStyle(messagingStyle)
-                                    .setNumber(messagingStyle.getMessages().size())
-                                    .build();
-
-                            postNotification(activeNotification.getId(), notif);
-                            updateMessageSummary();
-                            return;
+                        if (msgDescriptorId != null && !descriptorIds.contains(msgDescriptorId)) {
+                            msgIterator.remove();
                         }
                     }
+
+                    android.app.Notification notif = new NotificationCompat.Builder(mApplication, notification)
+                            .setSilent(true)
+                            .setStyle(messagingStyle)
+                            .setNumber(messagingStyle.getMessages().size())
+                            .build();
+
+                    setMessageNotification(msgNotif, notif, messagingStyle);
                 }
             }
+            postLastMessageNotification(msgNotif);
+            updateMessageSummary();
         });
     }
 
@@ -1341,12 +1539,13 @@ public class NotificationCenterImpl implements NotificationCenter {
             Log.d(LOG_TAG, "cancelAll");
         }
 
-        mNotificationManager.cancelAll();
-        mBadger.setBadgeNumber(0);
-        synchronized (this) {
-            mConversationId2Notifications.clear();
+        for (UUID conversationId : mConversationId2Notifications.keySet()) {
+            removeMessageNotification(conversationId);
         }
-        mNotificationManager.cancel(MESSAGE_SUMMARY_NOTIFICATION_ID);
+        mBadger.setBadgeNumber(0);
+
+        // Cancel after the message notifications already queued so that none of them is posted again.
+        mMessageExecutor.execute(() -> mNotificationManager.cancelAll());
     }
 
     @Override
@@ -1552,7 +1751,7 @@ public class NotificationCenterImpl implements NotificationCenter {
 
         Person person = new Person.Builder()
                 .setKey(callerShortcutId)
-                .setIcon(CommonUtils.bitmapToAdaptiveIcon(avatar))
+                .setIcon(mAvatarCache.getIcon(avatar))
                 .setName(TextUtils.isEmpty(callerName) ? mTwinmeApplication.getAnonymousName() : callerName)
                 .build();
 
@@ -1661,7 +1860,7 @@ public class NotificationCenterImpl implements NotificationCenter {
 
             Person person = new Person.Builder()
                     .setKey(originator.getShortcutId())
-                    .setIcon(CommonUtils.bitmapToAdaptiveIcon(callerAvatar))
+                    .setIcon(mAvatarCache.getIcon(callerAvatar))
                     .setName(TextUtils.isEmpty(originator.getName()) ? mTwinmeApplication.getAnonymousName() :originator.getName())
                     .build();
 
@@ -1880,7 +2079,8 @@ public class NotificationCenterImpl implements NotificationCenter {
             }
             return mTwinmeApplication.getDefaultAvatar();
         } else {
-            return getAvatarWithAvatarId(contact.getAvatarId());
+            Bitmap avatar = mAvatarCache.getAvatar(contact.getId(), contact.getAvatarId());
+            return avatar == null ? mTwinmeApplication.getDefaultAvatar() : avatar;
         }
     }
 
@@ -1892,7 +2092,7 @@ public class NotificationCenterImpl implements NotificationCenter {
 
         Bitmap avatar = null;
         if (avatarId != null) {
-            avatar = mTwinmeContext.getImageService().getImage(avatarId, ImageService.Kind.THUMBNAIL);
+            avatar = mAvatarCache.getAvatar(null, avatarId);
         }
         return avatar == null ? mTwinmeApplication.getDefaultAvatar() : avatar;
     }
@@ -1902,25 +2102,43 @@ public class NotificationCenterImpl implements NotificationCenter {
             Log.d(LOG_TAG, "newNotificationId");
         }
 
-        int result;
-        int needUpdate = 0;
-        synchronized (this) {
-            result = mNotificationId++;
-            if (result >= mLastNotificationId) {
-                mLastNotificationId = result + 10;
-                needUpdate = mLastNotificationId;
-            }
-        }
+        final int result = mNotificationId.getAndIncrement();
 
-        // Save the last notification Id every 10 allocation.
-        if (needUpdate > 0) {
-            SharedPreferences.Editor editor = mSharedPreferences.edit();
-            editor.putInt(NOTIFICATION_SEQUENCE, needUpdate);
-            editor.apply();
+        // Reserve the next block before the current one is exhausted so that it is saved before it is used.
+        final int reservedNotificationId = mReservedNotificationId.get();
+        if (result + NOTIFICATION_ID_BLOCK / 2 >= reservedNotificationId) {
+            reserveNotificationIds(reservedNotificationId);
         }
         return result;
     }
 
+    /**
+     * Reserve the block of notification IDs which follows the current reserved block and save it in the
+     * preferences.  The preferences are written synchronously from the message executor so that the write is
+     * not queued for the activity and service lifecycle transitions.
+     *
+     * @param reservedNotificationId the end of the current reserved block.
+     */
+    @SuppressLint("ApplySharedPref")
+    private void reserveNotificationIds(int reservedNotificationId) {
+
+        final int newReservedNotificationId = reservedNotificationId + NOTIFICATION_ID_BLOCK;
+        if (!mReservedNotificationId.compareAndSet(reservedNotificationId, newReservedNotificationId)) {
+            // Another thread has reserved the block.
+            return;
+        }
+
+        if (DEBUG) {
+            Log.d(LOG_TAG, "reserveNotificationIds: " + newReservedNotificationId);
+        }
+
+        mMessageExecutor.execute(() -> {
+            SharedPreferences.Editor editor = mSharedPreferences.edit();
+            editor.putInt(NOTIFICATION_SEQUENCE, newReservedNotificationId);
+            editor.commit();
+        });
+    }
+
     @Override
     public void missedCallNotification(Originator originator, boolean video) {
         if (DEBUG) {
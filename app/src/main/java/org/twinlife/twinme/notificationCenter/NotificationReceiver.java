@@ -45,9 +45,26 @@ public class NotificationReceiver extends BroadcastReceiver {
             Log.d(LOG_TAG, "onReceive: context=" + context + " intent=" + intent);
         }
 
-        TwinmeApplicationImpl twinmeApplication = TwinmeApplicationImpl.getInstance(context);
+        // The application is created before the receiver is called but getApplicationContext() may not give it:
+        // whenReady() finds the instance, and the broadcast must be finished whatever happens.
+        final PendingResult pendingResult = goAsync();
+        TwinmeApplicationImpl.whenReady(context, (TwinmeApplicationImpl twinmeApplication) -> {
+            try {
+                if (twinmeApplication == null) {
+                    Log.e(LOG_TAG, "Application not found, can't handle " + intent.getAction());
+                    return;
+                }
+
+                onReceive(context, intent, twinmeApplication);
+            } finally {
+                pendingResult.finish();
+            }
+        });
+    }
+
+    private void onReceive(@NonNull Context context, @NonNull Intent intent, @NonNull TwinmeApplicationImpl twinmeApplication) {
 
-        if (twinmeApplication == null || twinmeApplication.getTwinmeContext() == null) {
+        if (twinmeApplication.getTwinmeContext() == null) {
             Log.e(LOG_TAG, "Application is not initialized, can't send reply");
             return;
         }
@@ -20,7 +20,6 @@ import org.twinlife.twinlife.BaseService;
 import org.twinlife.twinlife.BaseService.ErrorCode;
 import org.twinlife.twinlife.BuildConfig;
 import org.twinlife.twinlife.ConversationService;
-import org.twinlife.twinlife.DisplayCallsMode;
 import org.twinlife.twinlife.Filter;
 import org.twinlife.twinlife.NotificationService.NotificationStat;
 import org.twinlife.twinlife.RepositoryObject;
@@ -35,7 +34,6 @@ import org.twinlife.twinme.models.Space;
 import org.twinlife.twinme.ui.AbstractTwinmeActivity;
 
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 public class MainService extends AbstractTwinmeService {
@@ -215,6 +213,7 @@ public class MainService extends AbstractTwinmeService {
     private UUID mSpaceId;
     private Space mSpace;
     private Profile mProfile;
+    private final OperationTimings mTimings = new OperationTimings(LOG_TAG);
 
     public MainService(@NonNull AbstractTwinmeActivity activity, @NonNull TwinmeContext twinmeContext, @NonNull Observer observer) {
         super(LOG_TAG, activity, twinmeContext, observer);
@@ -236,7 +235,9 @@ public class MainService extends AbstractTwinmeService {
             Log.d(LOG_TAG, "getPendingNotifications");
         }
 
-        mState &= ~(GET_PENDING_NOTIFICATIONS | GET_PENDING_NOTIFICATIONS_DONE);
+        synchronized (this) {
+            mState &= ~(GET_PENDING_NOTIFICATIONS | GET_PENDING_NOTIFICATIONS_DONE);
+        }
         startOperation();
     }
 
@@ -245,7 +246,9 @@ public class MainService extends AbstractTwinmeService {
             Log.d(LOG_TAG, "getContacts");
         }
 
-        mState &= ~(GET_CONTACTS | GET_CONTACTS_DONE);
+        synchronized (this) {
+            mState &= ~(GET_CONTACTS | GET_CONTACTS_DONE);
+        }
         startOperation();
     }
 
@@ -254,7 +257,9 @@ public class MainService extends AbstractTwinmeService {
             Log.d(LOG_TAG, "getConversations");
         }
 
-        mState &= ~(GET_CONVERSATIONS | GET_CONVERSATIONS_DONE);
+        synchronized (this) {
+            mState &= ~(GET_CONVERSATIONS | GET_CONVERSATIONS_DONE);
+        }
         startOperation();
     }
 
@@ -263,8 +268,10 @@ public class MainService extends AbstractTwinmeService {
             Log.d(LOG_TAG, "setSpace: spaceId= " + spaceId);
         }
 
-        mSpaceId = spaceId;
-        mState &= ~(GET_SPACE | GET_SPACE_DONE);
+        synchronized (this) {
+            mSpaceId = spaceId;
+            mState &= ~(GET_SPACE | GET_SPACE_DONE);
+        }
         startOperation();
     }
 
@@ -273,9 +280,11 @@ public class MainService extends AbstractTwinmeService {
             Log.d(LOG_TAG, "activeProfile: profile=" + profile);
         }
 
-        mProfile = profile;
-        mWork = UPDATE_SPACE;
-        mState &= ~(UPDATE_SPACE | UPDATE_SPACE_DONE);
+        synchronized (this) {
+            mProfile = profile;
+            mWork = UPDATE_SPACE;
+            mState &= ~(UPDATE_SPACE | UPDATE_SPACE_DONE);
+        }
         showProgressIndicator();
         startOperation();
     }
@@ -301,7 +310,7 @@ public class MainService extends AbstractTwinmeService {
     //
 
     @Override
-    protected void onOperation() {
+    protected synchronized void onOperation() {
         if (DEBUG) {
             Log.d(LOG_TAG, "onOperation");
         }
@@ -314,6 +323,13 @@ public class MainService extends AbstractTwinmeService {
             return;
         }
 
+        //
+        // Steps 1 to 6 load the data displayed by the main activity.  The steps which don't depend
+        // on each other are started together and each step is started as soon as its dependencies
+        // are done: the profiles and the transfer call receivers don't depend on the current space,
+        // the notification stats, the conversations and the contacts are filtered on it.
+        //
+
         //
         // Step 1: get the current space.
         //
@@ -321,8 +337,13 @@ public class MainService extends AbstractTwinmeService {
         if ((mState & GET_CURRENT_SPACE) == 0) {
             mState |= GET_CURRENT_SPACE;
 
+            mTimings.start("getCurrentSpace");
             mTwinmeContext.getCurrentSpace((ErrorCode errorCode, Space space) -> {
-                mSpace = space;
+                mTimings.finish("getCurrentSpace");
+                synchronized (this) {
+                    mSpace = space;
+                    mState |= GET_CURRENT_SPACE_DONE;
+                }
                 runOnUiThread(() -> {
                     if (space != null) {
                         mObserver.onSetCurrentSpace(space);
@@ -330,13 +351,8 @@ public class MainService extends AbstractTwinmeService {
                         mObserver.onGetProfileNotFound();
                     }
                 });
-                mState |= GET_CURRENT_SPACE_DONE;
                 onOperation();
             });
-            return;
-        }
-        if ((mState & GET_CURRENT_SPACE_DONE) == 0) {
-            return;
         }
 
         //
@@ -350,40 +366,16 @@ public class MainService extends AbstractTwinmeService {
             if (DEBUG) {
                 Log.d(LOG_TAG, "TwinmeContext.getProfiles: requestId=" + requestId);
             }
+            mTimings.start("getProfiles");
             mTwinmeContext.getProfiles(requestId, (List<Profile> list) -> {
                 finishOperation(requestId);
                 onGetProfiles(list);
                 onOperation();
             });
-            return;
-        }
-        if ((mState & GET_PROFILES_DONE) == 0) {
-            return;
         }
 
         //
-        // Step 3
-        //
-
-        if ((mState & GET_PENDING_NOTIFICATIONS) == 0) {
-            mState |= GET_PENDING_NOTIFICATIONS;
-
-            if (DEBUG) {
-                Log.d(LOG_TAG, "TwinmeContext.getPendingNotifications");
-            }
-
-            mTwinmeContext.getSpaceNotificationStats((BaseService.ErrorCode errorCode, NotificationStat stat) -> {
-                onGetSpaceNotificationStats(stat);
-                onOperation();
-            });
-            return;
-        }
-        if ((mState & GET_PENDING_NOTIFICATIONS_DONE) == 0) {
-            return;
-        }
-
-        //
-        // Step 4
+        // Step 3: get the transfer call receivers.
         //
 
         if ((mState & GET_TRANSFER_CALL) == 0) {
@@ -403,17 +395,36 @@ public class MainService extends AbstractTwinmeService {
             if (DEBUG) {
                 Log.d(LOG_TAG, "TwinmeContext.findCallReceivers: filter=" + filter);
             }
+            mTimings.start("findCallReceivers");
             mTwinmeContext.findCallReceivers(filter,
                     (List<CallReceiver> callReceivers) -> {
                         onGetTransferCall(callReceivers);
                         onOperation();
                     });
-            return;
         }
-        if ((mState & GET_TRANSFER_CALL_DONE) == 0) {
+
+        if ((mState & GET_CURRENT_SPACE_DONE) == 0) {
             return;
         }
 
+        //
+        // Step 4: get the pending notifications of the current space.
+        //
+
+        if ((mState & GET_PENDING_NOTIFICATIONS) == 0) {
+            mState |= GET_PENDING_NOTIFICATIONS;
+
+            if (DEBUG) {
+                Log.d(LOG_TAG, "TwinmeContext.getPendingNotifications");
+            }
+
+            mTimings.start("getSpaceNotificationStats");
+            mTwinmeContext.getSpaceNotificationStats((BaseService.ErrorCode errorCode, NotificationStat stat) -> {
+                onGetSpaceNotificationStats(stat);
+                onOperation();
+            });
+        }
+
         //
         // Step 5: get conversations.
         //
@@ -421,23 +432,19 @@ public class MainService extends AbstractTwinmeService {
         if ((mState & GET_CONVERSATIONS) == 0 && mSpace != null) {
             mState |= GET_CONVERSATIONS;
 
+            // Only the number of conversations is used: don't load the last descriptor of each conversation.
             long requestId = newOperation(GET_CONVERSATIONS);
             if (DEBUG) {
-                Log.d(LOG_TAG, "TwinmeContext.getContacts: requestId=" + requestId);
+                Log.d(LOG_TAG, "TwinmeContext.findConversations: requestId=" + requestId);
             }
-            mTwinmeContext.findConversationDescriptors(new Filter<>(mSpace), DisplayCallsMode.ALL,
-                    (Map<ConversationService.Conversation, ConversationService.Descriptor> conversations) -> {
+            mTimings.start("findConversations");
+            mTwinmeContext.findConversations(new Filter<>(mSpace), (List<ConversationService.Conversation> conversations) -> {
                 finishOperation(requestId);
                 onGetConversations(conversations.size());
                 onOperation();
             });
-            return;
-        }
-        if ((mState & GET_CONVERSATIONS_DONE) == 0) {
-            return;
         }
 
-
         //
         // Step 6: get contacts.
         //
@@ -450,26 +457,32 @@ public class MainService extends AbstractTwinmeService {
                 Log.d(LOG_TAG, "TwinmeContext.getContacts: requestId=" + requestId);
             }
 
+            mTimings.start("findContacts");
             final Filter<RepositoryObject> filter = mTwinmeContext.createSpaceFilter();
             mTwinmeContext.findContacts(filter, (List<Contact> contacts) -> {
                 finishOperation(requestId);
                 onGetContacts(contacts);
                 onOperation();
             });
-            return;
         }
-        if ((mState & GET_CONTACTS_DONE) == 0) {
+
+        final int stepsDone = GET_PROFILES_DONE | GET_TRANSFER_CALL_DONE | GET_PENDING_NOTIFICATIONS_DONE
+                | GET_CONVERSATIONS_DONE | GET_CONTACTS_DONE;
+        if ((mState & stepsDone) != stepsDone) {
             return;
         }
+        mTimings.publish();
 
         if (mSpaceId != null) {
             if ((mState & GET_SPACE) == 0) {
                 mState |= GET_SPACE;
 
                 mTwinmeContext.getSpace(mSpaceId, (ErrorCode errorCode, Space space) -> {
-                    mSpace = space;
-                    mState |= GET_SPACE_DONE;
-                    mState &= ~(SET_SPACE | SET_SPACE_DONE);
+                    synchronized (this) {
+                        mSpace = space;
+                        mState |= GET_SPACE_DONE;
+                        mState &= ~(SET_SPACE | SET_SPACE_DONE);
+                    }
                     onOperation();
                 });
                 return;
@@ -534,7 +547,9 @@ public class MainService extends AbstractTwinmeService {
             Log.d(LOG_TAG, "onSignOut");
         }
 
-        mState = 0;
+        synchronized (this) {
+            mState = 0;
+        }
 
         mObserver.onSignOut();
     }
@@ -544,7 +559,9 @@ public class MainService extends AbstractTwinmeService {
             Log.d(LOG_TAG, "onSignInError errorCode=" + errorCode);
         }
 
-        mState = 0;
+        synchronized (this) {
+            mState = 0;
+        }
 
         mObserver.onFatalError(errorCode);
     }
@@ -557,11 +574,12 @@ public class MainService extends AbstractTwinmeService {
         runOnUiThread(() -> mObserver.onUpdateProfile(profile));
     }
 
-    private void onGetProfiles(@NonNull List<Profile> profiles) {
+    private synchronized void onGetProfiles(@NonNull List<Profile> profiles) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onGetProfiles: profiles=" + profiles);
         }
 
+        mTimings.finish("getProfiles");
         mState |= GET_PROFILES_DONE;
 
         runOnUiThread(() -> mObserver.onGetProfiles(profiles));
@@ -583,11 +601,12 @@ public class MainService extends AbstractTwinmeService {
         runOnUiThread(() -> mObserver.onDeleteProfile(profileId));
     }
 
-    private void onGetTransferCall(@NonNull List<CallReceiver> callReceivers) {
+    private synchronized void onGetTransferCall(@NonNull List<CallReceiver> callReceivers) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onGetTransferCall: callReceivers=" + callReceivers);
         }
 
+        mTimings.finish("findCallReceivers");
         mState |= GET_TRANSFER_CALL_DONE;
 
         if (!callReceivers.isEmpty()) {
@@ -603,7 +622,7 @@ public class MainService extends AbstractTwinmeService {
         runOnUiThread(() -> mObserver.onUpdateSpace(space));
     }
 
-    private void onSetSpace(@NonNull Space space) {
+    private synchronized void onSetSpace(@NonNull Space space) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onSetSpace: space=" + space);
         }
@@ -613,11 +632,12 @@ public class MainService extends AbstractTwinmeService {
         onSetCurrentSpace(space);
     }
 
-    private void onGetSpaceNotificationStats(NotificationStat notificationStat) {
+    private synchronized void onGetSpaceNotificationStats(NotificationStat notificationStat) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onGetPendingNotifications: notificationStat=" + notificationStat);
         }
 
+        mTimings.finish("getSpaceNotificationStats");
         mState |= GET_PENDING_NOTIFICATIONS_DONE;
         runOnUiThread(() -> mObserver.onUpdatePendingNotifications(notificationStat.getPendingCount() > 0));
     }
@@ -648,21 +668,23 @@ public class MainService extends AbstractTwinmeService {
         runOnUiThread(() -> mObserver.onDeleteTransferCall(callReceiverId));
     }
 
-    private void onGetContacts(@NonNull List<Contact> contacts) {
+    private synchronized void onGetContacts(@NonNull List<Contact> contacts) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onGetContacts: contacts=" + contacts);
         }
 
+        mTimings.finish("findContacts");
         mState |= GET_CONTACTS_DONE;
 
         runOnUiThread(() -> mObserver.onGetContacts(contacts.size()));
     }
 
-    private void onGetConversations(int nbConversations) {
+    private synchronized void onGetConversations(int nbConversations) {
         if (DEBUG) {
             Log.d(LOG_TAG, "onGetConversations: conversations=" + nbConversations);
         }
 
+        mTimings.finish("findConversations");
         mState |= GET_CONVERSATIONS_DONE;
 
         runOnUiThread(() -> mObserver.onGetConversations(nbConversations));
@@ -682,7 +704,9 @@ public class MainService extends AbstractTwinmeService {
         }
 
         if (operationId == GET_CURRENT_SPACE) {
-            mState |= GET_CURRENT_SPACE_DONE;
+            synchronized (this) {
+                mState |= GET_CURRENT_SPACE_DONE;
+            }
 
             if (errorCode == ErrorCode.ITEM_NOT_FOUND) {
 
@@ -0,0 +1,124 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.services;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings of the steps executed by a twinme service.
+ *
+ * The service records when each step is started and when its result is received.  Once all the steps are
+ * finished, the report is published so that it can be displayed by the debug screens: the last report of each
+ * service is kept for the life of the process.  The steps are started and finished from the twinlife threads.
+ */
+public final class OperationTimings {
+    private static final String LOG_TAG = "OperationTimings";
+    private static final boolean DEBUG = false;
+
+    private static final Map<String, String> sReports = new LinkedHashMap<>();
+
+    private static final class Step {
+        final long startTime;
+        long endTime;
+
+        Step(long startTime) {
+
+            this.startTime = startTime;
+        }
+    }
+
+    @NonNull
+    private final String mName;
+    private final long mCreationTime = SystemClock.elapsedRealtime();
+    private final Map<String, Step> mSteps = new LinkedHashMap<>();
+    private boolean mPublished;
+
+    public OperationTimings(@NonNull String name) {
+
+        mName = name;
+    }
+
+    /**
+     * The step is started.  A step which is started again, to reload its data, is not recorded.
+     *
+     * @param step the step name.
+     */
+    public synchronized void start(@NonNull String step) {
+
+        if (!mPublished && !mSteps.containsKey(step)) {
+            mSteps.put(step, new Step(SystemClock.elapsedRealtime()));
+        }
+    }
+
+    /**
+     * The result of the step is received.
+     *
+     * @param step the step name.
+     */
+    public synchronized void finish(@NonNull String step) {
+
+        final Step info = mSteps.get(step);
+        if (info != null && info.endTime == 0) {
+            info.endTime = SystemClock.elapsedRealtime();
+        }
+    }
+
+    /**
+     * All the steps are finished: publish the report once.
+     */
+    public synchronized void publish() {
+
+        if (mPublished) {
+            return;
+        }
+
+        mPublished = true;
+        long endTime = mCreationTime;
+        final StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Step> step : mSteps.entrySet()) {
+            final Step info = step.getValue();
+            report.append(step.getKey()).append(": start +").append(info.startTime - mCreationTime).append(" ms");
+            if (info.endTime != 0) {
+                report.append(", duration ").append(info.endTime - info.startTime).append(" ms");
+                endTime = Math.max(endTime, info.endTime);
+            }
+            report.append('\n');
+        }
+        report.append("total: ").append(endTime - mCreationTime).append(" ms\n");
+
+        if (DEBUG) {
+            Log.d(LOG_TAG, mName + "\n" + report);
+        }
+
+        synchronized (sReports) {
+            sReports.put(mName, report.toString());
+        }
+    }
+
+    /**
+     * Get the last timings reported by the services.
+     *
+     * @return the report or an empty string.
+     */
+    @NonNull
+    public static String getReport() {
+
+        final StringBuilder report = new StringBuilder();
+        synchronized (sReports) {
+            for (Map.Entry<String, String> service : sReports.entrySet()) {
+                report.append(service.getKey()).append('\n').append(service.getValue());
+            }
+        }
+
+        return report.toString();
+    }
+}
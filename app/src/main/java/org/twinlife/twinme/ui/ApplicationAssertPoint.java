@@ -17,7 +17,8 @@ public enum ApplicationAssertPoint implements AssertPoint {
     AUDIO_RECORD_NULL,
     AUDIO_RECORD_ERROR,
     POST_NOTIFICATION_ERROR,
-    POST_NOTIFICATION_SECURITY;
+    POST_NOTIFICATION_SECURITY,
+    APPLICATION_NOT_READY;
 
     public int getIdentifier() {
 
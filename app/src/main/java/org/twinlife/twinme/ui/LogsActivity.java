@@ -18,6 +18,7 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import org.twinlife.device.android.twinme.R;
+import org.twinlife.twinme.services.OperationTimings;
 import org.twinlife.twinme.skin.Design;
 
 public class LogsActivity extends AbstractTwinmeActivity {
@@ -79,7 +80,12 @@ public class LogsActivity extends AbstractTwinmeActivity {
         mLogsTextView.setTextSize(TypedValue.COMPLEX_UNIT_DIP, 14);
         mLogsTextView.setTextColor(Design.FONT_COLOR_DEFAULT);
         mLogsTextView.setMovementMethod(new ScrollingMovementMethod());
-        mLogsTextView.setText(getTwinmeContext().getManagementService().getLogReport());
+        final String timings = OperationTimings.getReport();
+        if (timings.isEmpty()) {
+            mLogsTextView.setText(getTwinmeContext().getManagementService().getLogReport());
+        } else {
+            mLogsTextView.setText(getTwinmeContext().getManagementService().getLogReport() + "\n" + timings);
+        }
 
         ViewGroup.MarginLayoutParams marginLayoutParams = (ViewGroup.MarginLayoutParams) mLogsTextView.getLayoutParams();
         marginLayoutParams.leftMargin = (int) (DESIGN_LOGS_MARGIN * Design.WIDTH_RATIO);
@@ -16,12 +16,15 @@ import static org.twinlife.twinme.utils.Utils.getScaledAvatar;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.database.Cursor;
 import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Environment;
+import android.os.Looper;
 import android.os.StrictMode;
+import android.os.Trace;
 import android.provider.DocumentsContract;
 import android.provider.MediaStore;
 import android.util.Log;
@@ -33,6 +36,7 @@ import com.bumptech.glide.Glide;
 
 import org.twinlife.device.android.twinme.BuildConfig;
 import org.twinlife.device.android.twinme.R;
+import org.twinlife.twinlife.AssertPoint;
 import org.twinlife.twinlife.BaseService;
 import org.twinlife.twinlife.ConnectionStatus;
 import org.twinlife.twinlife.ConversationService;
@@ -70,9 +74,15 @@ import org.twinlife.twinme.utils.update.LastVersionImpl;
 import java.io.File;
 import java.io.InputStream;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplicationImpl implements TwinmeApplication, JobService.Observer {
     private static final String LOG_TAG = "TwinmeApplicationImpl";
@@ -87,6 +97,53 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
     private static final float AUDIO_PLAYER_SPEED_FAST= 1.5f;
     private static final float AUDIO_PLAYER_SPEED_VERY_FAST = 2.0f;
 
+    // Durable flag set when the Glide disk cache could contain the thumbnails of deleted descriptors.
+    private static final String MEDIA_CACHE_PREFERENCES = "MediaCache";
+    private static final String MEDIA_CACHE_INVALID = "invalid";
+
+    private class TwinmeContextObserver extends TwinmeContext.DefaultObserver {
+
+        @Override
+        public void onTwinlifeReady() {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "TwinmeContextObserver.onTwinlifeReady");
+            }
+
+            TwinmeContext twinmeContext = getTwinmeContext();
+            if (twinmeContext != null && mMediaCacheObserverAdded.compareAndSet(false, true)) {
+                twinmeContext.getConversationService().addServiceObserver(mMediaCacheObserver);
+            }
+        }
+    }
+
+    /**
+     * Invalidate the media cache for every deletion made by the conversation service: the deletions made from
+     * any screen, the descriptors deleted by the peer and the expired descriptors.  The deleted descriptor ids
+     * do not give their type and the Glide disk cache keys of a descriptor cannot be evicted one by one: the
+     * cache is marked as invalid and it is cleared when the application goes in background or at the next start.
+     */
+    private class MediaCacheObserver extends ConversationService.DefaultServiceObserver {
+
+        @Override
+        public void onResetConversation(@NonNull ConversationService.Conversation conversation, @NonNull ConversationService.ClearMode clearMode) {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "MediaCacheObserver.onResetConversation: conversation=" + conversation);
+            }
+
+            invalidateMediaCache();
+        }
+
+        @Override
+        public void onDeleteDescriptors(long requestId, @NonNull ConversationService.Conversation conversation,
+                                        @NonNull ConversationService.DescriptorId[] descriptorList) {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "MediaCacheObserver.onDeleteDescriptors: conversation=" + conversation);
+            }
+
+            invalidateMediaCache();
+        }
+    }
+
     private Bitmap mAnonymousAvatar;
     private Bitmap mDefaultAvatar;
     private Bitmap mDefaultGroupAvatar;
@@ -101,12 +158,22 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
     private AdminService mAdminService;
     private JobService mJobService;
     private CoachMarkManager mCoachMarkManager;
+    private final Object mMediaCacheLock = new Object();
+    private boolean mMediaCacheInvalid = false;
+    private final MediaCacheObserver mMediaCacheObserver = new MediaCacheObserver();
+    private final AtomicBoolean mMediaCacheObserverAdded = new AtomicBoolean(false);
     private boolean mShowConnectedMessage = true;
     private Date mAppBackgroundDate;
-    private boolean mIsInBackground = true;
+    private volatile boolean mIsInBackground = true;
     private WeakReference<TwinmeActivityImpl> mCurrentActivity;
 
-    private static WeakReference<TwinmeApplicationImpl> sInstance;
+    // Maximum time to wait for the application creation when getInstance() is called from another thread.
+    private static final long INSTANCE_TIMEOUT = 1000;
+
+    private static volatile WeakReference<TwinmeApplicationImpl> sInstance;
+    private static final CountDownLatch sInstanceReady = new CountDownLatch(1);
+    private static final List<TwinmeContext.Consumer<TwinmeApplicationImpl>> sReadyConsumers = new ArrayList<>();
+    private static final AtomicInteger sSlowPathCount = new AtomicInteger(0);
 
     /**
      * Get the TwinmeApplication instance from the context.
@@ -114,41 +181,126 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
      * We have found that the Activity.getApplication() sometimes does not return the expected TwinmeApplication instance.
      * We are having ClassCastException when we try to convert it to a TwinmeApplication class desipite a correct
      * setup in the Android manifest.
+     * <p>
+     * The application is created on the main thread: when it is not yet created, the main thread gets null
+     * immediately since waiting would block the creation, and the other threads wait for it with a timeout.
+     * Use whenReady() to be called when the application is created.
      *
      * @param context the context.
      * @return the Twinme application instance.
      */
+    @Nullable
     public static TwinmeApplicationImpl getInstance(@Nullable Context context) {
 
-        for (int retry = 0; retry < 10; retry++) {
-            if (context instanceof TwinmeApplicationImpl) {
-                return (TwinmeApplicationImpl) context;
-            }
+        final TwinmeApplicationImpl app = findInstance(context);
+        if (app != null) {
 
-            if (sInstance != null) {
-                TwinmeApplicationImpl app = sInstance.get();
-                if (app != null) {
-                    return app;
-                }
-            }
+            return app;
+        }
+
+        sSlowPathCount.incrementAndGet();
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+
+            return null;
+        }
+
+        return awaitInstance(context, INSTANCE_TIMEOUT);
+    }
 
-            if (context != null) {
-                Context appContext = context.getApplicationContext();
-                if (appContext instanceof TwinmeApplicationImpl) {
-                    return (TwinmeApplicationImpl) appContext;
+    /**
+     * Wait for the application to be created.  Must not be called from the main thread.
+     *
+     * @param context the context.
+     * @param timeout the maximum time to wait in milliseconds.
+     * @return the Twinme application instance or null if it is not created before the timeout.
+     */
+    @Nullable
+    private static TwinmeApplicationImpl awaitInstance(@Nullable Context context, long timeout) {
+
+        try {
+            sInstanceReady.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+
+        return findInstance(context);
+    }
+
+    /**
+     * Call the consumer with the application instance.  The consumer is called immediately when the application
+     * is created, otherwise it is called from the main thread at the end of the application creation.  The consumer
+     * is always called: it gets null when the application instance cannot be found.
+     *
+     * @param context the context.
+     * @param consumer the consumer to call with the application instance or null.
+     */
+    public static void whenReady(@Nullable Context context, @NonNull TwinmeContext.Consumer<TwinmeApplicationImpl> consumer) {
+
+        TwinmeApplicationImpl app = sInstanceReady.getCount() == 0 ? findInstance(context) : null;
+        if (app == null) {
+            synchronized (sReadyConsumers) {
+                if (sInstanceReady.getCount() != 0) {
+                    sReadyConsumers.add(consumer);
+                    return;
                 }
             }
+            app = findInstance(context);
+        }
+
+        consumer.accept(app);
+    }
 
-            // Try to wait to let Android initialize the application (not sure it will help...).
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException ignored) {
+    @Nullable
+    private static TwinmeApplicationImpl findInstance(@Nullable Context context) {
 
+        if (context instanceof TwinmeApplicationImpl) {
+            return (TwinmeApplicationImpl) context;
+        }
+
+        final WeakReference<TwinmeApplicationImpl> instance = sInstance;
+        if (instance != null) {
+            TwinmeApplicationImpl app = instance.get();
+            if (app != null) {
+                return app;
+            }
+        }
+
+        if (context != null) {
+            Context appContext = context.getApplicationContext();
+            if (appContext instanceof TwinmeApplicationImpl) {
+                return (TwinmeApplicationImpl) appContext;
             }
         }
+
         return null;
     }
 
+    /**
+     * The main thread stages of the application creation are done: wake up the threads waiting for the
+     * application and call the consumers registered by whenReady().
+     */
+    private void onInstanceReady(@Nullable TwinmeContext twinmeContext) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onInstanceReady");
+        }
+
+        final List<TwinmeContext.Consumer<TwinmeApplicationImpl>> consumers;
+        synchronized (sReadyConsumers) {
+            sInstanceReady.countDown();
+            consumers = new ArrayList<>(sReadyConsumers);
+            sReadyConsumers.clear();
+        }
+        for (TwinmeContext.Consumer<TwinmeApplicationImpl> consumer : consumers) {
+            consumer.accept(this);
+        }
+
+        // Report the components which were started before the application and could not get it.
+        final int slowPathCount = sSlowPathCount.get();
+        if (slowPathCount > 0 && twinmeContext != null) {
+            twinmeContext.assertion(ApplicationAssertPoint.APPLICATION_NOT_READY, AssertPoint.createLength(slowPathCount));
+        }
+    }
+
     //
     // Implement TwinmeApplication interface
     //
@@ -936,6 +1088,10 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
 
         sInstance = new WeakReference<>(this);
 
+        // The application is created in stages: only what is needed before the first activity is displayed
+        // is made on the main thread, the last version is loaded in background.
+        // Each stage is marked in the system traces to measure the cold start.
+        Trace.beginSection("TwinmeApplication.configuration");
         try (InputStream is = getResources().openRawResource(R.raw.tool)) {
             setTwinlifeConfiguration(new Configuration(), is);
         } catch (Exception ex) {
@@ -943,10 +1099,17 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
                 Log.e(LOG_TAG, "Error in configuration", ex);
             }
             setTwinlifeConfiguration(new Configuration(), null);
+        } finally {
+            Trace.endSection();
         }
 
         // should be done after initialization
-        super.onCreate();
+        Trace.beginSection("TwinmeApplication.twinlife");
+        try {
+            super.onCreate();
+        } finally {
+            Trace.endSection();
+        }
 
         if (org.twinlife.twinlife.BuildConfig.ENABLE_CHECKS) {
             StrictMode.enableDefaults();
@@ -960,37 +1123,78 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
 
         TwinmeContext twinmeContext = getTwinmeContext();
         if (twinmeContext == null) {
+            onInstanceReady(null);
             return;
         }
 
-        Settings.init(twinmeContext.getConfigurationService());
+        Trace.beginSection("TwinmeApplication.services");
+        try {
+            Settings.init(twinmeContext.getConfigurationService());
 
-        // Create the default space settings based on the user's current settings.
-        SpaceSettings defaultSettings = new SpaceSettings(getResources().getString(R.string.space_appearance_activity_general_title));
-        defaultSettings.setMessageCopyAllowed(Settings.messageCopyAllowed.getBoolean());
-        defaultSettings.setFileCopyAllowed(Settings.fileCopyAllowed.getBoolean());
-        twinmeContext.setDefaultSpaceSettings(defaultSettings, getResources().getString(R.string.application_default));
+            // Create the default space settings based on the user's current settings.
+            SpaceSettings defaultSettings = new SpaceSettings(getResources().getString(R.string.space_appearance_activity_general_title));
+            defaultSettings.setMessageCopyAllowed(Settings.messageCopyAllowed.getBoolean());
+            defaultSettings.setFileCopyAllowed(Settings.fileCopyAllowed.getBoolean());
+            twinmeContext.setDefaultSpaceSettings(defaultSettings, getResources().getString(R.string.application_default));
 
-        // Setup so that the 'description' and 'capabilities' attributes are copied from the Profile
-        // when a new relation is created.
-        twinmeContext.registerSharedTwincodeAttribute(Twincode.DESCRIPTION, Twincode.DESCRIPTION);
-        twinmeContext.registerSharedTwincodeAttribute(Twincode.CAPABILITIES, Twincode.CAPABILITIES);
-        mAdminService = new AdminService(twinmeContext, this);
-        mJobService = twinmeContext.getJobService();
-        mJobService.setObserver(this);
+            // Setup so that the 'description' and 'capabilities' attributes are copied from the Profile
+            // when a new relation is created.
+            twinmeContext.registerSharedTwincodeAttribute(Twincode.DESCRIPTION, Twincode.DESCRIPTION);
+            twinmeContext.registerSharedTwincodeAttribute(Twincode.CAPABILITIES, Twincode.CAPABILITIES);
+            mAdminService = new AdminService(twinmeContext, this);
+            mJobService = twinmeContext.getJobService();
+            mJobService.setObserver(this);
+            twinmeContext.setObserver(new TwinmeContextObserver());
+        } finally {
+            Trace.endSection();
+        }
 
-        Glide glide = Glide.get(this);
-        glide.getRegistry()
-                .append(ImageId.class, Bitmap.class, TwinlifeImageLoader.Factory.create(twinmeContext))
-                .append(ConversationService.FileDescriptor.class, InputStream.class, FileDescriptorLoader.Factory.create(twinmeContext))
-                .append(FileInfo.class, InputStream.class, MediaInfoImageLoader.Factory.create())
-                .append(FileInfo.class, Bitmap.class, MediaInfoVideoThumbnailLoader.Factory.create(this));
+        // The twinme model loaders must be registered before an activity makes its first Glide request:
+        // Glide.get() does not wait for a registration made by another thread once Glide is initialized.
+        // The Glide disk cache is kept between starts so that the thumbnails are not decoded again: it is bounded
+        // by Glide and stored in the application private storage, it is cleared after an invalidateMediaCache().
+        Trace.beginSection("TwinmeApplication.glide");
+        try {
+            Glide glide = Glide.get(this);
+            glide.getRegistry()
+                    .append(ImageId.class, Bitmap.class, TwinlifeImageLoader.Factory.create(twinmeContext))
+                    .append(ConversationService.FileDescriptor.class, InputStream.class, FileDescriptorLoader.Factory.create(twinmeContext))
+                    .append(FileInfo.class, InputStream.class, MediaInfoImageLoader.Factory.create())
+                    .append(FileInfo.class, Bitmap.class, MediaInfoVideoThumbnailLoader.Factory.create(this));
+        } finally {
+            Trace.endSection();
+        }
 
-        ExecutorService glideCacheExecutor = Executors.newSingleThreadExecutor();
-        glideCacheExecutor.execute(glide::clearDiskCache);
-        glideCacheExecutor.shutdown();
+        onInstanceReady(twinmeContext);
 
-        mCoachMarkManager = new CoachMarkManager();
+        ExecutorService startupExecutor = Executors.newSingleThreadExecutor();
+        startupExecutor.execute(this::onCreateBackground);
+        startupExecutor.shutdown();
+    }
+
+    /**
+     * Background stage of the application creation: read the last version so that the main thread does not
+     * read it when the main activity first checks for updates, and clear the media cache if it was invalidated.
+     */
+    private void onCreateBackground() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onCreateBackground");
+        }
+
+        Trace.beginSection("TwinmeApplication.lastVersion");
+        try {
+            getLastVersion();
+        } finally {
+            Trace.endSection();
+        }
+
+        // Remove the thumbnails of the descriptors deleted before the application was stopped.
+        Trace.beginSection("TwinmeApplication.mediaCache");
+        try {
+            clearInvalidMediaCache();
+        } finally {
+            Trace.endSection();
+        }
     }
 
     @Override
@@ -1001,6 +1205,7 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
 
         mIsInBackground = true;
         mAppBackgroundDate = new Date();
+        clearMediaCache();
         boolean isIdle = mJobService.isIdle();
         if (!isIdle && !CallService.isRunning()) {
             PeerService.startService(this, 0, System.currentTimeMillis());
@@ -1238,14 +1443,26 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
 
     @Override
     @Nullable
-    public synchronized LastVersion getLastVersion() {
-        LastVersion lastVersion = mAdminService.getLastVersion();
-        if (lastVersion == null) {
-            lastVersion = loadLastVersion();
-            mAdminService.setLastVersion(lastVersion);
+    public LastVersion getLastVersion() {
+        synchronized (this) {
+            LastVersion lastVersion = mAdminService.getLastVersion();
+            if (lastVersion != null) {
+
+                return lastVersion;
+            }
         }
 
-        return lastVersion;
+        // Read the file without holding the application lock which is also used by the main thread.
+        final LastVersion loadedVersion = loadLastVersion();
+        synchronized (this) {
+            LastVersion lastVersion = mAdminService.getLastVersion();
+            if (lastVersion == null) {
+                lastVersion = loadedVersion;
+                mAdminService.setLastVersion(lastVersion);
+            }
+
+            return lastVersion;
+        }
     }
 
     @Override
@@ -1301,28 +1518,38 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
     // Coach Mark
     //
 
+    @NonNull
+    private synchronized CoachMarkManager getCoachMarkManager() {
+
+        if (mCoachMarkManager == null) {
+            mCoachMarkManager = new CoachMarkManager();
+        }
+
+        return mCoachMarkManager;
+    }
+
     @Override
     public boolean showCoachMark() {
 
-        return mCoachMarkManager.showCoachMark();
+        return getCoachMarkManager().showCoachMark();
     }
 
     @Override
     public void setShowCoachMark(boolean showCoachMark) {
 
-        mCoachMarkManager.setShowCoachMark(showCoachMark);
+        getCoachMarkManager().setShowCoachMark(showCoachMark);
     }
 
     @Override
     public boolean showCoachMark(CoachMark.CoachMarkTag coachMarkTag) {
 
-        return mCoachMarkManager.showCoachMark(coachMarkTag);
+        return getCoachMarkManager().showCoachMark(coachMarkTag);
     }
 
     @Override
     public void hideCoachMark(CoachMark.CoachMarkTag coachMarkTag) {
 
-        mCoachMarkManager.hideCoachMark(coachMarkTag);
+        getCoachMarkManager().hideCoachMark(coachMarkTag);
     }
 
     //
@@ -1334,6 +1561,81 @@ public class TwinmeApplicationImpl extends org.twinlife.twinme.TwinmeApplication
         return mIsInBackground;
     }
 
+    //
+    // Media cache
+    //
+
+    /**
+     * Mark the Glide disk cache as invalid after descriptors were deleted or a conversation was cleared.
+     * The flag is saved before the deletion is reported so that the cache is cleared at the next start
+     * if the application is stopped before it is cleared.
+     */
+    @SuppressLint("ApplySharedPref")
+    private void invalidateMediaCache() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "invalidateMediaCache");
+        }
+
+        synchronized (mMediaCacheLock) {
+            if (mMediaCacheInvalid) {
+                return;
+            }
+
+            mMediaCacheInvalid = true;
+            getSharedPreferences(MEDIA_CACHE_PREFERENCES, Context.MODE_PRIVATE).edit()
+                    .putBoolean(MEDIA_CACHE_INVALID, true)
+                    .commit();
+        }
+
+        // The cache is not cleared while the user is scrolling the conversations: expired descriptors are
+        // deleted every few seconds in some conversations.
+        if (mIsInBackground) {
+            clearMediaCache();
+        }
+    }
+
+    /**
+     * Clear the Glide disk cache when it was marked as invalid.  Must be called from a background thread.
+     */
+    @SuppressLint("ApplySharedPref")
+    private void clearInvalidMediaCache() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "clearInvalidMediaCache");
+        }
+
+        synchronized (mMediaCacheLock) {
+            final SharedPreferences sharedPreferences = getSharedPreferences(MEDIA_CACHE_PREFERENCES, Context.MODE_PRIVATE);
+            if (!mMediaCacheInvalid && !sharedPreferences.getBoolean(MEDIA_CACHE_INVALID, false)) {
+                return;
+            }
+            mMediaCacheInvalid = false;
+        }
+
+        Glide.get(this).clearDiskCache();
+
+        // Keep the flag if a descriptor was deleted while the cache was cleared.
+        synchronized (mMediaCacheLock) {
+            if (!mMediaCacheInvalid) {
+                getSharedPreferences(MEDIA_CACHE_PREFERENCES, Context.MODE_PRIVATE).edit()
+                        .putBoolean(MEDIA_CACHE_INVALID, false)
+                        .commit();
+            }
+        }
+    }
+
+    private void clearMediaCache() {
+
+        synchronized (mMediaCacheLock) {
+            if (!mMediaCacheInvalid) {
+                return;
+            }
+        }
+
+        ExecutorService glideCacheExecutor = Executors.newSingleThreadExecutor();
+        glideCacheExecutor.execute(this::clearInvalidMediaCache);
+        glideCacheExecutor.shutdown();
+    }
+
     //
     // Group call animation
     //
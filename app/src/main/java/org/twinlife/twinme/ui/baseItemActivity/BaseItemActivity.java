@@ -118,6 +118,17 @@ public abstract class BaseItemActivity extends AbstractTwinmeActivity {
      */
     public abstract void addLoadableItem(@NonNull final Loader<Item> loader);
 
+    /**
+     * Get the width of the thumbnails of the image and video items displayed by the list when they are prefetched
+     * with this width by the activity.
+     *
+     * @return the thumbnail width or 0 to load the thumbnails with the size of the image view.
+     */
+    public int getItemThumbnailWidth() {
+
+        return 0;
+    }
+
     public void getTwincodeOutbound(@NonNull UUID twincodeOutboundId, @NonNull GetTwincodeAction.Consumer observer) {
 
         GetTwincodeAction action = new GetTwincodeAction(getTwinmeContext(), twincodeOutboundId);
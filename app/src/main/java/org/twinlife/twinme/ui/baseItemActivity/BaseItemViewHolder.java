@@ -30,6 +30,7 @@ import androidx.percentlayout.widget.PercentRelativeLayout;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
 
 import org.twinlife.device.android.twinme.R;
 import org.twinlife.twinlife.ConversationService;
@@ -305,10 +306,19 @@ class BaseItemViewHolder extends RecyclerView.ViewHolder {
                     + " " + width + "x" + height);
         }
 
+        // Use the same thumbnail size as the ItemPrefetcher of the activity so that a prefetched thumbnail is found
+        // in the cache, the other image views load a thumbnail of their own size.
+        final int thumbnailWidth = mode == Item.ItemMode.NORMAL ? mBaseItemActivity.getItemThumbnailWidth() : 0;
+        final RequestBuilder<Drawable> thumbnail;
+        if (thumbnailWidth > 0) {
+            thumbnail = ItemThumbnail.request(Glide.with(imageView), fileDescriptor, thumbnailWidth);
+        } else {
+            thumbnail = Glide.with(imageView).load(fileDescriptor).apply(Modes.AS_THUMBNAIL);
+        }
         Glide.with(imageView)
                 .load(fileDescriptor)
                 .placeholder(getPlaceholder(width, height, radii))
-                .thumbnail(Glide.with(imageView).load(fileDescriptor).apply(Modes.AS_THUMBNAIL))
+                .thumbnail(thumbnail)
                 .into(imageView);
     }
 
@@ -507,6 +517,14 @@ class BaseItemViewHolder extends RecyclerView.ViewHolder {
         mItem = item;
         mCorners = item.getCorners();
 
+        onBindSelection(item);
+    }
+
+    /**
+     * Update only the selection state of the item view.
+     */
+    void onBindSelection(Item item) {
+
         if (mSelectedView != null) {
             if (mBaseItemActivity.isSelectItemMode()) {
                 mSelectedView.setVisibility(View.VISIBLE);
@@ -514,7 +532,7 @@ class BaseItemViewHolder extends RecyclerView.ViewHolder {
                 mSelectedView.setVisibility(View.GONE);
             }
 
-            if (mItem.isSelected()) {
+            if (item.isSelected()) {
                 mSelectedImageView.setVisibility(View.VISIBLE);
             } else {
                 mSelectedImageView.setVisibility(View.GONE);
@@ -522,6 +540,14 @@ class BaseItemViewHolder extends RecyclerView.ViewHolder {
         }
     }
 
+    /**
+     * Update only the annotations of the item view.  The default is to bind the whole view.
+     */
+    void onBindAnnotations(Item item) {
+
+        onBind(item);
+    }
+
     void onViewAttachedToWindow() {
     }
 
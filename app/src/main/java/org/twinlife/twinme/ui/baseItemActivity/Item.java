@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Item implements Comparable<Item> {
 
@@ -90,7 +91,8 @@ public abstract class Item implements Comparable<Item> {
         SMALL_PREVIEW
     }
 
-    private static int sItemId = 0;
+    // Items can be created by the background thread which builds a page of items.
+    private static final AtomicInteger sItemId = new AtomicInteger(0);
 
     private final long mItemId;
     private final ItemType mType;
@@ -121,7 +123,7 @@ public abstract class Item implements Comparable<Item> {
 
     Item(@NonNull ItemType type, @NonNull Descriptor descriptor, @Nullable Descriptor replyToDescriptor) {
 
-        mItemId = sItemId++;
+        mItemId = sItemId.getAndIncrement();
         mDeleteProgress = 0;
         mType = type;
         mDescriptorId = descriptor.getDescriptorId();
@@ -167,7 +169,7 @@ public abstract class Item implements Comparable<Item> {
 
     Item(ItemType type, DescriptorId descriptorId, long timestamp) {
 
-        mItemId = sItemId++;
+        mItemId = sItemId.getAndIncrement();
         mType = type;
         mDescriptorId = descriptorId;
 
@@ -201,6 +203,26 @@ public abstract class Item implements Comparable<Item> {
         return mItemId;
     }
 
+    /**
+     * Get an identifier which is stable for the descriptor: an item that is replaced by another item for the same
+     * descriptor keeps the same identifier so that the RecyclerView rebinds the view instead of replacing it.
+     * Items which are not associated with a descriptor use a negative identifier.
+     *
+     * @return the stable identifier.
+     */
+    public long getStableId() {
+
+        if (mDescriptorId.sequenceId == BaseItemActivity.DEFAULT_SEQUENCE_ID) {
+
+            return -1 - mItemId;
+        }
+
+        final UUID twincodeOutboundId = mDescriptorId.twincodeOutboundId;
+        final long hash = twincodeOutboundId.getMostSignificantBits() ^ twincodeOutboundId.getLeastSignificantBits();
+
+        return (hash * 31 + mDescriptorId.sequenceId) & Long.MAX_VALUE;
+    }
+
     public ItemType getType() {
 
         return mType;
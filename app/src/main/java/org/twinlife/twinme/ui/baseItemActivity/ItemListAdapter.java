@@ -26,6 +26,10 @@ public class ItemListAdapter extends RecyclerView.Adapter<BaseItemViewHolder> {
     private static final String LOG_TAG = "ItemListAdapter";
     private static final boolean DEBUG = false;
 
+    // Payloads used to rebind only a part of the item view.
+    public static final Object PAYLOAD_SELECTION = "selection";
+    public static final Object PAYLOAD_ANNOTATIONS = "annotations";
+
     private final BaseItemActivity mBaseItemActivity;
     private final BaseItemActivity.AudioItemObserver mAudioItemObserver;
     private final List<Item> mItems;
@@ -71,7 +75,7 @@ public class ItemListAdapter extends RecyclerView.Adapter<BaseItemViewHolder> {
             Log.d(LOG_TAG, "getItemId: position=" + position);
         }
 
-        return getItem(position).getItemId();
+        return getItem(position).getStableId();
     }
 
     @Override
@@ -90,6 +94,31 @@ public class ItemListAdapter extends RecyclerView.Adapter<BaseItemViewHolder> {
         viewHolder.onBind(item);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull BaseItemViewHolder viewHolder, int position, @NonNull List<Object> payloads) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onBindViewHolder: viewHolder=" + viewHolder + " position=" + position + " payloads=" + payloads);
+        }
+
+        // A partial bind is possible only if the view holder is still bound to the same item.
+        Item item = getItem(position);
+        if (payloads.isEmpty() || viewHolder.getItem() != item) {
+            onBindViewHolder(viewHolder, position);
+            return;
+        }
+
+        for (Object payload : payloads) {
+            if (payload == PAYLOAD_SELECTION) {
+                viewHolder.onBindSelection(item);
+            } else if (payload == PAYLOAD_ANNOTATIONS) {
+                viewHolder.onBindAnnotations(item);
+            } else {
+                onBindViewHolder(viewHolder, position);
+                return;
+            }
+        }
+    }
+
     @Override
     @NonNull
     public BaseItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -0,0 +1,75 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.baseItemActivity;
+
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+
+import org.twinlife.twinlife.ConversationService.FileDescriptor;
+import org.twinlife.twinlife.ConversationService.ImageDescriptor;
+import org.twinlife.twinlife.ConversationService.VideoDescriptor;
+import org.twinlife.twinme.glide.Modes;
+import org.twinlife.twinme.skin.Design;
+
+/**
+ * Glide request of the thumbnail displayed by the image and video items.
+ *
+ * The Glide cache key includes the size of the decoded bitmap: the item views and the ItemPrefetcher must build
+ * the thumbnail request with the same override size so that the prefetched thumbnail is found by the item view.
+ */
+public final class ItemThumbnail {
+
+    // Width of the image view relative to the list (layout_widthPercent of the image and video item layouts).
+    private static final float IMAGE_ITEM_WIDTH_PERCENT = 0.6693f;
+
+    /**
+     * Get the width of the image view displayed by an image or video item in the NORMAL mode.
+     *
+     * @return the image view width in pixels.
+     */
+    public static int getItemWidth() {
+
+        return (int) (Design.DISPLAY_WIDTH * IMAGE_ITEM_WIDTH_PERCENT);
+    }
+
+    /**
+     * Build the request to load the thumbnail of the image or video descriptor for an image view of the given
+     * width.  The height is computed from the descriptor aspect ratio.
+     *
+     * @param requestManager the Glide request manager.
+     * @param fileDescriptor the image or video descriptor.
+     * @param width the width of the image view.
+     * @return the thumbnail request.
+     */
+    @NonNull
+    public static RequestBuilder<Drawable> request(@NonNull RequestManager requestManager,
+                                                   @NonNull FileDescriptor fileDescriptor, int width) {
+
+        final int imageWidth, imageHeight;
+        if (fileDescriptor instanceof ImageDescriptor) {
+            imageWidth = ((ImageDescriptor) fileDescriptor).getWidth();
+            imageHeight = ((ImageDescriptor) fileDescriptor).getHeight();
+
+        } else if (fileDescriptor instanceof VideoDescriptor) {
+            imageWidth = ((VideoDescriptor) fileDescriptor).getWidth();
+            imageHeight = ((VideoDescriptor) fileDescriptor).getHeight();
+
+        } else {
+            imageWidth = 0;
+            imageHeight = 0;
+        }
+
+        final int height = imageWidth > 0 && imageHeight > 0 ? (int) ((long) width * imageHeight / imageWidth) : width;
+        return requestManager.load(fileDescriptor).apply(Modes.AS_THUMBNAIL).override(width, Math.max(height, 1));
+    }
+
+    private ItemThumbnail() {
+    }
+}
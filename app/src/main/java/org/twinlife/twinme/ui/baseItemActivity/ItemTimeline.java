@@ -0,0 +1,323 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.baseItemActivity;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinlife.ConversationService.DescriptorId;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Ordered list of conversation items with an index on the descriptor id.
+ *
+ * Items are kept sorted on their timestamp: the TimeItem and NameItem that precede an item use the
+ * timestamp of that item so that the timestamp never decreases along the list.  This allows to find
+ * the insertion position with a binary search on the timestamp followed by a short scan on the items
+ * which have the same timestamp.  Items which are associated with a descriptor are also indexed on
+ * their descriptor id to avoid scanning the list to find them.
+ *
+ * The list can be modified with the standard List operations, the index is maintained accordingly.
+ * This class is not thread safe and must be used from the UI thread.
+ */
+public class ItemTimeline extends AbstractList<Item> implements RandomAccess {
+
+    private final ArrayList<Item> mItems = new ArrayList<>();
+    private final HashMap<DescriptorId, Item> mDescriptorIndex = new HashMap<>();
+
+    /**
+     * Find the item associated with the descriptor id.
+     *
+     * @param descriptorId the descriptor id.
+     * @return the item or null.
+     */
+    @Nullable
+    public Item getItem(@NonNull DescriptorId descriptorId) {
+
+        return mDescriptorIndex.get(descriptorId);
+    }
+
+    /**
+     * Check if an item associated with the descriptor id is in the list.
+     *
+     * @param descriptorId the descriptor id.
+     * @return true if the item is in the list.
+     */
+    public boolean containsDescriptor(@NonNull DescriptorId descriptorId) {
+
+        return mDescriptorIndex.containsKey(descriptorId);
+    }
+
+    /**
+     * Get the index of the item associated with the descriptor id.
+     *
+     * @param descriptorId the descriptor id.
+     * @return the item index or -1.
+     */
+    public int indexOfDescriptor(@NonNull DescriptorId descriptorId) {
+
+        final Item item = mDescriptorIndex.get(descriptorId);
+        if (item == null) {
+
+            return -1;
+        }
+
+        return indexOfItem(item);
+    }
+
+    /**
+     * Get the index of the item in the list.  The item is compared by reference.
+     *
+     * @param item the item to look for.
+     * @return the item index or -1.
+     */
+    public int indexOfItem(@NonNull Item item) {
+
+        final long timestamp = item.getTimestamp();
+        final int size = mItems.size();
+        for (int index = lowerBound(timestamp); index < size; index++) {
+            final Item lItem = mItems.get(index);
+            if (lItem == item) {
+
+                return index;
+            }
+            if (lItem.getTimestamp() > timestamp) {
+                break;
+            }
+        }
+
+        // The item timestamp could have been changed after its insertion: fallback to a linear search.
+        for (int index = size - 1; index >= 0; index--) {
+            if (mItems.get(index) == item) {
+
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Get the position where the item must be inserted to keep the list sorted.  The item is inserted
+     * after the last item which is lower or equal to it.
+     *
+     * @param item the item to insert.
+     * @return the insertion index.
+     */
+    public int insertionIndex(@NonNull Item item) {
+
+        final long timestamp = item.getTimestamp();
+        final int start = lowerBound(timestamp);
+        int index = upperBound(timestamp, start);
+
+        // Look in the items having the same timestamp for the last one which is lower or equal.
+        while (index > start) {
+            if (mItems.get(index - 1).compareTo(item) <= 0) {
+
+                return index;
+            }
+            index--;
+        }
+
+        return start;
+    }
+
+    /**
+     * Remove the items between the two indexes.
+     *
+     * @param fromIndex the index of the first item to remove.
+     * @param toIndex the index after the last item to remove.
+     */
+    public void removeItems(int fromIndex, int toIndex) {
+
+        removeRange(fromIndex, toIndex);
+    }
+
+    /**
+     * Get the version of the list which changes each time an item is added, replaced or removed.
+     *
+     * @return the list version.
+     */
+    public int getVersion() {
+
+        return modCount;
+    }
+
+    //
+    // Override AbstractList methods
+    //
+
+    @Override
+    public Item get(int index) {
+
+        return mItems.get(index);
+    }
+
+    @Override
+    public int size() {
+
+        return mItems.size();
+    }
+
+    @Override
+    public void add(int index, Item item) {
+
+        mItems.add(index, item);
+        addIndex(item);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Item> items) {
+
+        final boolean result = mItems.addAll(index, items);
+        for (Item item : items) {
+            addIndex(item);
+        }
+        modCount++;
+
+        return result;
+    }
+
+    @Override
+    public Item set(int index, Item item) {
+
+        final Item oldItem = mItems.set(index, item);
+        removeIndex(oldItem);
+        addIndex(item);
+        modCount++;
+
+        return oldItem;
+    }
+
+    @Override
+    public Item remove(int index) {
+
+        final Item item = mItems.remove(index);
+        removeIndex(item);
+        modCount++;
+
+        return item;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+
+        if (!(object instanceof Item)) {
+
+            return false;
+        }
+
+        final int index = indexOfItem((Item) object);
+        if (index < 0) {
+
+            return false;
+        }
+
+        remove(index);
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+
+        final List<Item> range = mItems.subList(fromIndex, toIndex);
+        for (Item item : range) {
+            removeIndex(item);
+        }
+        range.clear();
+        modCount++;
+    }
+
+    @Override
+    public int indexOf(Object object) {
+
+        if (!(object instanceof Item)) {
+
+            return -1;
+        }
+
+        return indexOfItem((Item) object);
+    }
+
+    @Override
+    public boolean contains(Object object) {
+
+        return indexOf(object) >= 0;
+    }
+
+    @Override
+    public void clear() {
+
+        mItems.clear();
+        mDescriptorIndex.clear();
+        modCount++;
+    }
+
+    //
+    // Private methods
+    //
+
+    private void addIndex(@Nullable Item item) {
+
+        if (item != null && item.getDescriptorId().sequenceId != BaseItemActivity.DEFAULT_SEQUENCE_ID) {
+            mDescriptorIndex.put(item.getDescriptorId(), item);
+        }
+    }
+
+    private void removeIndex(@Nullable Item item) {
+
+        if (item != null && item.getDescriptorId().sequenceId != BaseItemActivity.DEFAULT_SEQUENCE_ID) {
+            // Another item for the same descriptor could have replaced it.
+            if (mDescriptorIndex.get(item.getDescriptorId()) == item) {
+                mDescriptorIndex.remove(item.getDescriptorId());
+            }
+        }
+    }
+
+    /**
+     * Get the index of the first item whose timestamp is greater or equal to the timestamp.
+     */
+    private int lowerBound(long timestamp) {
+
+        int low = 0;
+        int high = mItems.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (mItems.get(middle).getTimestamp() < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Get the index of the first item whose timestamp is strictly greater than the timestamp.
+     */
+    private int upperBound(long timestamp, int low) {
+
+        int high = mItems.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (mItems.get(middle).getTimestamp() <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
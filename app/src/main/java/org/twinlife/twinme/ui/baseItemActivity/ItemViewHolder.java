@@ -169,6 +169,45 @@ abstract class ItemViewHolder extends BaseItemViewHolder {
             }
         }
 
+        bindAnnotations(item);
+        updateContainerMargins(item);
+
+        final View container = getContainer();
+
+        ViewGroup.MarginLayoutParams layoutParams = (ViewGroup.MarginLayoutParams) container.getLayoutParams();
+
+        View overlayView = getOverlayView();
+        ViewGroup.LayoutParams overlayLayoutParams = overlayView.getLayoutParams();
+        int overlayHeight;
+
+        if (isMenuOpen()) {
+            overlayHeight = container.getHeight() + getAnnotationViewHeight() + layoutParams.topMargin + layoutParams.bottomMargin;
+            overlayView.setVisibility(View.VISIBLE);
+            if (isSelectedItem(item.getDescriptorId())) {
+                itemView.setBackgroundColor(Design.BACKGROUND_COLOR_WHITE_OPACITY85);
+                overlayView.setVisibility(View.INVISIBLE);
+            }
+        } else {
+            overlayHeight = OVERLAY_DEFAULT_HEIGHT;
+            overlayView.setVisibility(View.INVISIBLE);
+            itemView.setBackgroundColor(Color.TRANSPARENT);
+        }
+        if (container.getWidth() != overlayLayoutParams.width || overlayHeight != overlayLayoutParams.height) {
+            overlayLayoutParams.width = container.getWidth();
+            overlayLayoutParams.height = overlayHeight;
+            overlayView.setLayoutParams(overlayLayoutParams);
+        }
+    }
+
+    @Override
+    void onBindAnnotations(Item item) {
+
+        bindAnnotations(item);
+        updateContainerMargins(item);
+    }
+
+    private void bindAnnotations(Item item) {
+
         if (mAnnotationView != null) {
             if (item.isForwarded() || item.isEdited() || (item.getLikeDescriptorAnnotations() != null && !item.getLikeDescriptorAnnotations().isEmpty())) {
                 mAnnotationAdapter.setAnnotations(item.getLikeDescriptorAnnotations(), item.getDescriptorId());
@@ -179,6 +218,9 @@ abstract class ItemViewHolder extends BaseItemViewHolder {
                 mAnnotationView.setVisibility(View.GONE);
             }
         }
+    }
+
+    private void updateContainerMargins(Item item) {
 
         final View container = getContainer();
 
@@ -203,28 +245,6 @@ abstract class ItemViewHolder extends BaseItemViewHolder {
             layoutParams.bottomMargin = bottomMargin;
             container.setLayoutParams(layoutParams);
         }
-
-        View overlayView = getOverlayView();
-        ViewGroup.LayoutParams overlayLayoutParams = overlayView.getLayoutParams();
-        int overlayHeight;
-
-        if (isMenuOpen()) {
-            overlayHeight = container.getHeight() + getAnnotationViewHeight() + layoutParams.topMargin + layoutParams.bottomMargin;
-            overlayView.setVisibility(View.VISIBLE);
-            if (isSelectedItem(item.getDescriptorId())) {
-                itemView.setBackgroundColor(Design.BACKGROUND_COLOR_WHITE_OPACITY85);
-                overlayView.setVisibility(View.INVISIBLE);
-            }
-        } else {
-            overlayHeight = OVERLAY_DEFAULT_HEIGHT;
-            overlayView.setVisibility(View.INVISIBLE);
-            itemView.setBackgroundColor(Color.TRANSPARENT);
-        }
-        if (container.getWidth() != overlayLayoutParams.width || overlayHeight != overlayLayoutParams.height) {
-            overlayLayoutParams.width = container.getWidth();
-            overlayLayoutParams.height = overlayHeight;
-            overlayView.setLayoutParams(overlayLayoutParams);
-        }
     }
 
     @Override
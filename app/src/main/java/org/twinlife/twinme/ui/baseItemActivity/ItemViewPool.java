@@ -0,0 +1,90 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.baseItemActivity;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Pool of conversation item view holders sized for each view type.
+ *
+ * The default RecycledViewPool keeps 5 view holders of each type which is not enough for the message and time
+ * items that fill most of a conversation: holders are dropped during a fling and inflated again.  The view
+ * holders keep a reference on their activity and on its observers so the pool is created for each list and it
+ * must not be shared between activities.  The most common view holders can also be inflated when the UI thread
+ * is idle, while the first page of the conversation is loaded, so that they are not inflated when the page is
+ * displayed.
+ */
+public class ItemViewPool extends RecyclerView.RecycledViewPool {
+    private static final String LOG_TAG = "ItemViewPool";
+    private static final boolean DEBUG = false;
+
+    private static final int MESSAGE_POOL_SIZE = 20;
+    private static final int TIME_POOL_SIZE = 12;
+    private static final int NAME_POOL_SIZE = 8;
+    private static final int MEDIA_POOL_SIZE = 10;
+    private static final int LINK_POOL_SIZE = 8;
+
+    private static final int PRE_INFLATE_MESSAGE_COUNT = 6;
+    private static final int PRE_INFLATE_TIME_COUNT = 4;
+
+    public ItemViewPool() {
+
+        setMaxRecycledViews(Item.ItemType.MESSAGE.ordinal(), MESSAGE_POOL_SIZE);
+        setMaxRecycledViews(Item.ItemType.PEER_MESSAGE.ordinal(), MESSAGE_POOL_SIZE);
+        setMaxRecycledViews(Item.ItemType.TIME.ordinal(), TIME_POOL_SIZE);
+        setMaxRecycledViews(Item.ItemType.NAME.ordinal(), NAME_POOL_SIZE);
+        setMaxRecycledViews(Item.ItemType.IMAGE.ordinal(), MEDIA_POOL_SIZE);
+        setMaxRecycledViews(Item.ItemType.PEER_IMAGE.ordinal(), MEDIA_POOL_SIZE);
+        setMaxRecycledViews(Item.ItemType.LINK.ordinal(), LINK_POOL_SIZE);
+        setMaxRecycledViews(Item.ItemType.PEER_LINK.ordinal(), LINK_POOL_SIZE);
+    }
+
+    /**
+     * Inflate the most common view holders when the UI thread is idle: one view holder is created each time
+     * the message queue becomes idle.  Must be called from the UI thread once the adapter is set.
+     *
+     * @param recyclerView the recycler view which uses this pool.
+     */
+    public void preInflate(@NonNull RecyclerView recyclerView) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "preInflate");
+        }
+
+        final Queue<Integer> viewTypes = new ArrayDeque<>();
+        for (int i = 0; i < PRE_INFLATE_MESSAGE_COUNT; i++) {
+            viewTypes.add(Item.ItemType.MESSAGE.ordinal());
+            viewTypes.add(Item.ItemType.PEER_MESSAGE.ordinal());
+        }
+        for (int i = 0; i < PRE_INFLATE_TIME_COUNT; i++) {
+            viewTypes.add(Item.ItemType.TIME.ordinal());
+        }
+
+        final MessageQueue.IdleHandler idleHandler = () -> {
+            final RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+            final Integer viewType = viewTypes.poll();
+            if (adapter == null || viewType == null || recyclerView.getRecycledViewPool() != this) {
+
+                return false;
+            }
+
+            // Don't inflate more view holders than the list can use.
+            if (getRecycledViewCount(viewType) < PRE_INFLATE_MESSAGE_COUNT) {
+                putRecycledView(adapter.createViewHolder(recyclerView, viewType));
+            }
+
+            return !viewTypes.isEmpty();
+        };
+        Looper.myQueue().addIdleHandler(idleHandler);
+    }
+}
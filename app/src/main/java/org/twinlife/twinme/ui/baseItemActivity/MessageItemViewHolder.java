@@ -20,7 +20,6 @@ import android.text.Spannable;
 import android.text.TextUtils;
 import android.text.method.LinkMovementMethod;
 import android.text.style.URLSpan;
-import android.text.util.Linkify;
 import android.util.TypedValue;
 import android.view.MotionEvent;
 import android.view.View;
@@ -38,7 +37,6 @@ import org.twinlife.twinlife.ConversationService.VideoDescriptor;
 import org.twinlife.twinlife.TwincodeURI;
 import org.twinlife.twinme.skin.Design;
 import org.twinlife.twinme.ui.AcceptInvitationActivity;
-import org.twinlife.twinme.utils.CommonUtils;
 import org.twinlife.twinme.utils.RoundedImageView;
 import org.twinlife.twinme.utils.Utils;
 
@@ -47,7 +45,6 @@ import java.util.List;
 
 class MessageItemViewHolder extends ItemViewHolder {
 
-    private static final int MAX_EMOJI = 5;
 
     private final View mReplyView;
     private final TextView mReplyTextView;
@@ -224,7 +221,19 @@ class MessageItemViewHolder extends ItemViewHolder {
         super.onBind(item);
 
         final MessageItem messageItem = (MessageItem) item;
-        mTextView.setText(Utils.formatText(messageItem.getContent(), 0));
+
+        // The formatted text, links and emoji count are computed once for the message.
+        final MessageTextCache.Entry messageText = MessageTextCache.get(messageItem, messageItem.getContent());
+        final int countEmoji = messageText.getEmojiCount();
+        if (countEmoji == 0) {
+            mTextView.setTypeface(getMessageFont().typeface);
+            mTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, getMessageFont().size);
+            MessageTextCache.setTextMetricsParams(mTextView);
+        } else {
+            mTextView.setTypeface(Design.getEmojiFont(countEmoji).typeface);
+            mTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, Design.getEmojiFont(countEmoji).size);
+        }
+        MessageTextCache.setText(mTextView, messageText);
 
         Item.ItemMode itemMode = messageItem.getMode();
         ViewTreeObserver viewTreeObserver = mTextView.getViewTreeObserver();
@@ -248,13 +257,7 @@ class MessageItemViewHolder extends ItemViewHolder {
                 }
             }
         });
-        
-        try {
-            Linkify.addLinks(mTextView, Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES | Linkify.PHONE_NUMBERS);
-            Linkify.addLinks(mTextView, CommonUtils.IPV6_PATTERN, null, null, null);
-        } catch (Exception ex) {
-            // Possible exception: android.webkit.WebViewFactory.MissingWebViewPackageException when there is no WebView implementation.
-        }
+
         mTextView.setLinkTextColor(Color.WHITE);
 
         // Compute the corner radii only once!
@@ -262,16 +265,10 @@ class MessageItemViewHolder extends ItemViewHolder {
 
         mGradientDrawable.setCornerRadii(cornerRadii);
 
-        int countEmoji = countEmoji(messageItem.getContent());
         if (countEmoji == 0) {
-            mTextView.setTypeface(getMessageFont().typeface);
-            mTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, getMessageFont().size);
             mGradientDrawable.setColor(Design.getMainStyle());
             mTextView.setPadding(MESSAGE_ITEM_TEXT_WIDTH_PADDING, MESSAGE_ITEM_TEXT_DEFAULT_PADDING, MESSAGE_ITEM_TEXT_WIDTH_PADDING, MESSAGE_ITEM_TEXT_DEFAULT_PADDING);
         } else {
-            mTextView.setTypeface(Design.getEmojiFont(countEmoji).typeface);
-            mTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, Design.getEmojiFont(countEmoji).size);
-
             if (messageItem.getReplyToDescriptor() == null) {
                 mGradientDrawable.setColor(Color.TRANSPARENT);
                 mGradientDrawable.setStroke(Design.BORDER_WIDTH, Color.TRANSPARENT);
@@ -388,54 +385,4 @@ class MessageItemViewHolder extends ItemViewHolder {
             }
         };
     }
-
-    //
-    // Private methods
-    //
-
-    private int countEmoji(String content) {
-
-        int countEmoji = 0;
-        int length = content.codePointCount(0, content.length());
-
-        if (length > MAX_EMOJI) {
-            return 0;
-        }
-
-        int index = 0;
-
-        while (index < content.length()) {
-            int codePoint = content.codePointAt(index);
-            int charCount = Character.charCount(codePoint);
-
-            boolean isEmoji = true;
-
-            for (int i = index; i < index + charCount; i++) {
-                char character = content.charAt(i);
-                int type = Character.getType(character);
-
-                if (type != Character.SURROGATE && type != Character.OTHER_SYMBOL) {
-                    isEmoji = false;
-                    break;
-                }
-            }
-
-            if (isEmoji) {
-                countEmoji++;
-            } else {
-                return 0;
-            }
-
-            index += charCount;
-
-            if (countEmoji == MAX_EMOJI) {
-                break;
-            }
-        }
-
-        return countEmoji;
-    }
 }
-
-
-
@@ -0,0 +1,222 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.baseItemActivity;
+
+import android.text.Spannable;
+import android.text.SpannableStringBuilder;
+import android.text.util.Linkify;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.annotation.WorkerThread;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import org.twinlife.twinlife.ConversationService.DescriptorId;
+import org.twinlife.twinme.utils.CommonUtils;
+import org.twinlife.twinme.utils.Utils;
+
+/**
+ * Cache of the formatted text displayed by the message items.
+ *
+ * Formatting a message runs Utils.formatText(), the Linkify regular expressions and the emoji count: this is
+ * done once for a descriptor and the result is shared by the view holders.  The entry is keyed by the descriptor
+ * id and is computed again when the descriptor update timestamp changes (edited message).  Entries are created
+ * by the page loading thread with prepare() and the text layout of messages displayed with the default font is
+ * also measured in advance with a PrecomputedText.
+ */
+public final class MessageTextCache {
+    private static final String LOG_TAG = "MessageTextCache";
+    private static final boolean DEBUG = false;
+
+    private static final int MAX_ENTRIES = 512;
+    private static final int MAX_EMOJI = 5;
+
+    /**
+     * The formatted text of a message.
+     */
+    public static final class Entry {
+        final long updatedTimestamp;
+        @NonNull
+        final Spannable text;
+        final int emojiCount;
+        @Nullable
+        final PrecomputedTextCompat precomputedText;
+
+        Entry(long updatedTimestamp, @NonNull Spannable text, int emojiCount, @Nullable PrecomputedTextCompat precomputedText) {
+
+            this.updatedTimestamp = updatedTimestamp;
+            this.text = text;
+            this.emojiCount = emojiCount;
+            this.precomputedText = precomputedText;
+        }
+
+        public int getEmojiCount() {
+
+            return emojiCount;
+        }
+    }
+
+    private static final LruCache<DescriptorId, Entry> sEntries = new LruCache<>(MAX_ENTRIES);
+    @Nullable
+    private static volatile PrecomputedTextCompat.Params sTextMetricsParams;
+
+    /**
+     * Prepare the formatted text of the item if it is a message.
+     *
+     * @param item the item which is not yet displayed.
+     */
+    @WorkerThread
+    public static void prepare(@NonNull Item item) {
+
+        if (item instanceof MessageItem) {
+            get(item, ((MessageItem) item).getContent());
+        } else if (item instanceof PeerMessageItem) {
+            get(item, ((PeerMessageItem) item).getContent());
+        }
+    }
+
+    /**
+     * Get the formatted text of the message item.
+     *
+     * @param item the message item.
+     * @param content the message content.
+     * @return the formatted text.
+     */
+    @NonNull
+    public static Entry get(@NonNull Item item, @Nullable String content) {
+
+        final DescriptorId descriptorId = item.getDescriptorId();
+        final long updatedTimestamp = item.getUpdatedTimestamp();
+        Entry entry = sEntries.get(descriptorId);
+        if (entry != null && entry.updatedTimestamp == updatedTimestamp) {
+
+            return entry;
+        }
+
+        entry = format(updatedTimestamp, content == null ? "" : content);
+        sEntries.put(descriptorId, entry);
+
+        return entry;
+    }
+
+    /**
+     * Set the formatted text on the text view.  The precomputed layout is used when it was measured with the
+     * text view current parameters.
+     *
+     * @param textView the text view configured with the message font.
+     * @param entry the formatted text.
+     */
+    @UiThread
+    public static void setText(@NonNull TextView textView, @NonNull Entry entry) {
+
+        if (entry.precomputedText != null) {
+            final PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(textView);
+            if (params.equals(entry.precomputedText.getParams())) {
+                TextViewCompat.setPrecomputedText(textView, entry.precomputedText);
+                return;
+            }
+        }
+
+        textView.setText(entry.text);
+    }
+
+    /**
+     * Record the text parameters used by the text views to display messages with the default font so that
+     * the following layouts are measured with them.
+     *
+     * @param textView the text view configured with the message font.
+     */
+    @UiThread
+    public static void setTextMetricsParams(@NonNull TextView textView) {
+
+        final PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(textView);
+        final PrecomputedTextCompat.Params current = sTextMetricsParams;
+        if (current == null || !current.equals(params)) {
+            sTextMetricsParams = params;
+
+            // The layouts measured with the previous parameters are now useless.
+            if (current != null) {
+                sEntries.evictAll();
+            }
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    @NonNull
+    private static Entry format(long updatedTimestamp, @NonNull String content) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "format: updatedTimestamp=" + updatedTimestamp);
+        }
+
+        final Spannable text = new SpannableStringBuilder(Utils.formatText(content, 0));
+        try {
+            Linkify.addLinks(text, Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES | Linkify.PHONE_NUMBERS);
+            Linkify.addLinks(text, CommonUtils.IPV6_PATTERN, null, null, null);
+        } catch (Exception ex) {
+            // Possible exception: android.webkit.WebViewFactory.MissingWebViewPackageException when there is no WebView implementation.
+        }
+
+        final int emojiCount = countEmoji(content);
+        final PrecomputedTextCompat.Params params = sTextMetricsParams;
+        PrecomputedTextCompat precomputedText = null;
+        if (emojiCount == 0 && params != null) {
+            precomputedText = PrecomputedTextCompat.create(text, params);
+        }
+
+        return new Entry(updatedTimestamp, text, emojiCount, precomputedText);
+    }
+
+    private static int countEmoji(@NonNull String content) {
+
+        int countEmoji = 0;
+        int length = content.codePointCount(0, content.length());
+
+        if (length > MAX_EMOJI) {
+            return 0;
+        }
+
+        int index = 0;
+
+        while (index < content.length()) {
+            int codePoint = content.codePointAt(index);
+            int charCount = Character.charCount(codePoint);
+
+            boolean isEmoji = true;
+
+            for (int i = index; i < index + charCount; i++) {
+                char character = content.charAt(i);
+                int type = Character.getType(character);
+
+                if (type != Character.SURROGATE && type != Character.OTHER_SYMBOL) {
+                    isEmoji = false;
+                    break;
+                }
+            }
+
+            if (isEmoji) {
+                countEmoji++;
+            } else {
+                return 0;
+            }
+
+            index += charCount;
+
+            if (countEmoji == MAX_EMOJI) {
+                break;
+            }
+        }
+
+        return countEmoji;
+    }
+}
@@ -114,6 +114,46 @@ abstract class PeerItemViewHolder extends BaseItemViewHolder {
             }
         }
 
+        bindAnnotations(item);
+        updateContainerMargins(item);
+
+        final View container = getContainer();
+
+        ViewGroup.MarginLayoutParams layoutParams = (ViewGroup.MarginLayoutParams) container.getLayoutParams();
+
+        View overlayView = getOverlayView();
+        ViewGroup.LayoutParams overlayLayoutParams = overlayView.getLayoutParams();
+
+        int overlayHeight;
+        if (isMenuOpen()) {
+            overlayHeight = container.getHeight() + getAnnotationViewHeight() + layoutParams.topMargin + layoutParams.bottomMargin;
+            overlayView.setVisibility(View.VISIBLE);
+            if (isSelectedItem(item.getDescriptorId())) {
+                itemView.setBackgroundColor(Design.BACKGROUND_COLOR_WHITE_OPACITY85);
+                overlayView.setVisibility(View.INVISIBLE);
+            }
+        } else {
+            overlayHeight = OVERLAY_DEFAULT_HEIGHT;
+            overlayView.setVisibility(View.INVISIBLE);
+            itemView.setBackgroundColor(Color.TRANSPARENT);
+        }
+
+        if (overlayLayoutParams.width != container.getWidth() || overlayLayoutParams.height != overlayHeight) {
+            overlayLayoutParams.width = container.getWidth();
+            overlayLayoutParams.height = overlayHeight;
+            overlayView.setLayoutParams(overlayLayoutParams);
+        }
+    }
+
+    @Override
+    void onBindAnnotations(Item item) {
+
+        bindAnnotations(item);
+        updateContainerMargins(item);
+    }
+
+    private void bindAnnotations(Item item) {
+
         if (mAnnotationView != null) {
             if (item.isForwarded() || item.isEdited() || (item.getLikeDescriptorAnnotations() != null && !item.getLikeDescriptorAnnotations().isEmpty())) {
                 mAnnotationAdapter.setAnnotations(item.getLikeDescriptorAnnotations(), item.getDescriptorId());
@@ -124,6 +164,9 @@ abstract class PeerItemViewHolder extends BaseItemViewHolder {
                 mAnnotationView.setVisibility(View.GONE);
             }
         }
+    }
+
+    private void updateContainerMargins(Item item) {
 
         final View container = getContainer();
 
@@ -146,29 +189,6 @@ abstract class PeerItemViewHolder extends BaseItemViewHolder {
             layoutParams.bottomMargin = bottomMargin;
             container.setLayoutParams(layoutParams);
         }
-
-        View overlayView = getOverlayView();
-        ViewGroup.LayoutParams overlayLayoutParams = overlayView.getLayoutParams();
-
-        int overlayHeight;
-        if (isMenuOpen()) {
-            overlayHeight = container.getHeight() + getAnnotationViewHeight() + layoutParams.topMargin + layoutParams.bottomMargin;
-            overlayView.setVisibility(View.VISIBLE);
-            if (isSelectedItem(item.getDescriptorId())) {
-                itemView.setBackgroundColor(Design.BACKGROUND_COLOR_WHITE_OPACITY85);
-                overlayView.setVisibility(View.INVISIBLE);
-            }
-        } else {
-            overlayHeight = OVERLAY_DEFAULT_HEIGHT;
-            overlayView.setVisibility(View.INVISIBLE);
-            itemView.setBackgroundColor(Color.TRANSPARENT);
-        }
-
-        if (overlayLayoutParams.width != container.getWidth() || overlayLayoutParams.height != overlayHeight) {
-            overlayLayoutParams.width = container.getWidth();
-            overlayLayoutParams.height = overlayHeight;
-            overlayView.setLayoutParams(overlayLayoutParams);
-        }
     }
 
     @Override
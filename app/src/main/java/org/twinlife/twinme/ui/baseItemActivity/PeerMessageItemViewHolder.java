@@ -19,7 +19,6 @@ import android.net.Uri;
 import android.os.CountDownTimer;
 import android.text.Spannable;
 import android.text.TextUtils;
-import android.text.util.Linkify;
 import android.util.TypedValue;
 import android.view.MotionEvent;
 import android.view.View;
@@ -49,7 +48,6 @@ import java.util.List;
 
 class PeerMessageItemViewHolder extends PeerItemViewHolder {
 
-    private static final int MAX_EMOJI = 5;
 
     private static final float DESIGN_EPHEMERAL_HEIGHT = 28f;
     private static final float DESIGN_EPHEMERAL_LEFT_MARGIN = 12f;
@@ -217,10 +215,14 @@ class PeerMessageItemViewHolder extends PeerItemViewHolder {
 
         mGradientDrawable.setCornerRadii(cornerRadii);
         final PeerMessageItem peerMessageItem = (PeerMessageItem) item;
-        int countEmoji = countEmoji(peerMessageItem.getContent());
+
+        // The formatted text, links and emoji count are computed once for the message.
+        final MessageTextCache.Entry messageText = MessageTextCache.get(peerMessageItem, peerMessageItem.getContent());
+        final int countEmoji = messageText.getEmojiCount();
         if (countEmoji == 0) {
             mTextView.setTypeface(getMessageFont().typeface);
             mTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, getMessageFont().size);
+            MessageTextCache.setTextMetricsParams(mTextView);
             mGradientDrawable.setColor(Design.GREY_ITEM_COLOR);
             mTextView.setPadding(MESSAGE_ITEM_TEXT_WIDTH_PADDING, MESSAGE_ITEM_TEXT_DEFAULT_PADDING, MESSAGE_ITEM_TEXT_WIDTH_PADDING, MESSAGE_ITEM_TEXT_DEFAULT_PADDING);
         } else {
@@ -236,7 +238,7 @@ class PeerMessageItemViewHolder extends PeerItemViewHolder {
             }
         }
 
-        mTextView.setText(Utils.formatText(peerMessageItem.getContent(), 0));
+        MessageTextCache.setText(mTextView, messageText);
 
         final Item.ItemMode itemMode = peerMessageItem.getMode();
         ViewTreeObserver viewTreeObserver = mTextView.getViewTreeObserver();
@@ -272,13 +274,6 @@ class PeerMessageItemViewHolder extends PeerItemViewHolder {
             mTextView.setEllipsize(null);
         }
 
-        try {
-            Linkify.addLinks(mTextView, Linkify.WEB_URLS | Linkify.EMAIL_ADDRESSES | Linkify.PHONE_NUMBERS);
-            Linkify.addLinks(mTextView, CommonUtils.IPV6_PATTERN, null, null, null);
-        } catch (Exception ex) {
-            // Possible exception: android.webkit.WebViewFactory.MissingWebViewPackageException when there is no WebView implementation.
-        }
-
         mTextView.setLinkTextColor(Design.FONT_COLOR_DEFAULT);
 
         mReplyGradientDrawable.setCornerRadii(cornerRadii);
@@ -425,45 +420,4 @@ class PeerMessageItemViewHolder extends PeerItemViewHolder {
             mEphemeralView.updateWithProgress(1);
         }
     }
-
-    private int countEmoji(String content) {
-
-        int countEmoji = 0;
-        int length = content.codePointCount(0, content.length());
-        if (length > MAX_EMOJI) {
-            return 0;
-        }
-
-        int index = 0;
-        while (index < content.length()) {
-            int codePoint = content.codePointAt(index);
-            int charCount = Character.charCount(codePoint);
-
-            boolean isEmoji = true;
-
-            for (int i = index; i < index + charCount; i++) {
-                char character = content.charAt(i);
-                int type = Character.getType(character);
-
-                if (type != Character.SURROGATE && type != Character.OTHER_SYMBOL) {
-                    isEmoji = false;
-                    break;
-                }
-            }
-
-            if (isEmoji) {
-                countEmoji++;
-            } else {
-                return 0;
-            }
-
-            index += charCount;
-
-            if (countEmoji == MAX_EMOJI) {
-                break;
-            }
-        }
-
-        return countEmoji;
-    }
 }
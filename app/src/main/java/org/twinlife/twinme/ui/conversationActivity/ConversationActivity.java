@@ -42,6 +42,7 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcelable;
 import android.preference.PreferenceManager;
 import android.provider.DocumentsContract;
@@ -150,6 +151,9 @@ import org.twinlife.twinme.ui.baseItemActivity.InvitationContactItem;
 import org.twinlife.twinme.ui.baseItemActivity.InvitationItem;
 import org.twinlife.twinme.ui.baseItemActivity.Item;
 import org.twinlife.twinme.ui.baseItemActivity.ItemListAdapter;
+import org.twinlife.twinme.ui.baseItemActivity.ItemThumbnail;
+import org.twinlife.twinme.ui.baseItemActivity.ItemTimeline;
+import org.twinlife.twinme.ui.baseItemActivity.ItemViewPool;
 import org.twinlife.twinme.ui.baseItemActivity.LinkItem;
 import org.twinlife.twinme.ui.baseItemActivity.MessageItem;
 import org.twinlife.twinme.ui.baseItemActivity.NameItem;
@@ -228,6 +232,13 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
 
     private static final int COACH_MARK_DELAY = 500;
 
+    // Maximum number of items kept in memory and number of descriptors loaded by each query of the pager.
+    private static final int WINDOW_SIZE = 600;
+    private static final int WINDOW_PAGE_SIZE = 100;
+
+    // Number of items prepared ahead of the visible range while scrolling.
+    private static final int PREFETCH_ITEM_COUNT = 12;
+
     private static final float DESIGN_REPLY_HEIGHT = 120f;
     private static final float DESIGN_MENU_WIDTH = 556f;
     private static final float DESIGN_MENU_REACTION_HEIGHT = 100f;
@@ -272,8 +283,8 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
     private static int AVATAR_VIEW_HEIGHT;
     private static int AVATAR_MARGIN;
 
-    private static final long MAX_DELTA_TIMESTAMP1 = 2 * 60 * 1000; /*- Between message groups */
-    private static final long MAX_DELTA_TIMESTAMP2 = 60 * 60 * 1000; /*- Time indicator */
+    static final long MAX_DELTA_TIMESTAMP1 = 2 * 60 * 1000; /*- Between message groups */
+    static final long MAX_DELTA_TIMESTAMP2 = 60 * 60 * 1000; /*- Time indicator */
 
     private static final int REQUEST_GET_FILE = 1;
     private static final int REQUEST_CREATE_DOCUMENT = 2;
@@ -292,6 +303,34 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
         DEFAULT, TEXT, GALLERY, CAMERA, MICRO, FILE
     }
 
+    /**
+     * Snapshot of the items to decorate taken on the UI thread: it can be decorated from any thread.
+     */
+    private static final class DecorationWindow {
+        @Nullable
+        final ItemDecorator.Entry previous;
+        @NonNull
+        final List<ItemDecorator.Entry> entries;
+        @Nullable
+        final ItemDecorator.Entry next;
+        final long lastTimeTimestamp;
+
+        DecorationWindow(@Nullable ItemDecorator.Entry previous, @NonNull List<ItemDecorator.Entry> entries,
+                         @Nullable ItemDecorator.Entry next, long lastTimeTimestamp) {
+
+            this.previous = previous;
+            this.entries = entries;
+            this.next = next;
+            this.lastTimeTimestamp = lastTimeTimestamp;
+        }
+
+        @NonNull
+        List<ItemDecorator.Decoration> decorate(@NonNull ItemDecorator decorator) {
+
+            return decorator.decorate(previous, entries, next, lastTimeTimestamp);
+        }
+    }
+
     private class EditTextTouchListener implements OnTouchListener {
 
         @Override
@@ -443,9 +482,20 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
     private Bitmap mIdentityAvatar;
     @Nullable
     private Originator mSubject;
-    private final ArrayList<Item> mItems = new ArrayList<>();
+    private final ItemTimeline mItems = new ItemTimeline();
     private final ArrayList<Item> mSelectedItems = new ArrayList<>();
     private boolean mBatchUpdate = true;
+    @Nullable
+    private List<Item> mItemCollector;
+    private int mItemsGeneration = 0;
+    // Descriptors of the pages built in the background and the items received for them in the meantime.
+    private final Set<DescriptorId> mPendingDescriptorIds = new HashSet<>();
+    private final List<Item> mPendingItems = new ArrayList<>();
+    private final Set<Item> mDecorationItems = new HashSet<>();
+    private final Handler mDecorationHandler = new Handler(Looper.getMainLooper());
+    private boolean mDecorationRunning = false;
+    private ConversationPager mPager;
+    private ReadMarker mReadMarker;
     private Item mLastReadPeerItem = null;
     private VoiceRecorderMessageView mVoiceRecorderMessageView;
     private Uri mCaptureUri;
@@ -579,6 +629,8 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
         }
 
         mDescriptorId = DescriptorId.fromString(intent.getStringExtra(Intents.INTENT_DESCRIPTOR_ID));
+        mPager = new ConversationPager(getTwinmeContext().getConversationService(), mDescriptorFilter, WINDOW_SIZE, WINDOW_PAGE_SIZE);
+        mReadMarker = new ReadMarker(descriptorId -> mConversationService.markDescriptorRead(descriptorId));
 
         setupDesign();
         initViews();
@@ -626,6 +678,8 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
 
         super.onPause();
 
+        // Send the pending read marks while the conversation is still active.
+        mReadMarker.pause();
         mResumed = false;
 
         mAsyncItemLoader.clear();
@@ -720,6 +774,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
         mUIPostInitialized = false;
 
         mAsyncItemLoader.stop();
+        mReadMarker.clear();
 
         if (mIsTyping && mSendAllowed) {
             mIsTyping = false;
@@ -1127,7 +1182,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
 
         // Don't mark the descriptor read if we are in background.
         if (mResumed) {
-            mConversationService.markDescriptorRead(descriptorId);
+            mReadMarker.mark(descriptorId);
         }
     }
 
@@ -1177,28 +1232,17 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             Log.d(LOG_TAG, "onReplyClick: descriptorId=" + descriptorId);
         }
 
-        int replyItemIndex = -1;
-        for (int index = mItems.size() - 1; index >= 0; index--) {
-            Item item = mItems.get(index);
-
-            if (item.getDescriptorId().equals(descriptorId)) {
-                replyItemIndex = index;
-                break;
-            }
-        }
+        int replyItemIndex = mItems.indexOfDescriptor(descriptorId);
 
         if (replyItemIndex != -1) {
             replyItemIndex++;
             mItemListView.scrollToPosition(replyItemIndex);
             mReplyToDescriptorId = null;
+        } else if (mConversation != null && !descriptorId.equals(mReplyToDescriptorId)) {
+            mReplyToDescriptorId = descriptorId;
+            loadDescriptorWindow(descriptorId);
         } else {
-            long firstSequenceId = mItems.size() < 2 ? -1 : mItems.get(1).getDescriptorId().sequenceId;
-            if (descriptorId.sequenceId < firstSequenceId) {
-                mReplyToDescriptorId = descriptorId;
-                mConversationService.getPreviousObjectDescriptors();
-            } else {
-                mReplyToDescriptorId = null;
-            }
+            mReplyToDescriptorId = null;
         }
     }
 
@@ -1226,7 +1270,12 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
         }
 
         mItemSelectedActionView.updateSelectedItems(mSelectedItems.size());
-        mItemListAdapter.notifyDataSetChanged();
+
+        // Only the selection view of the item has changed.
+        int index = mItems.indexOfItem(item);
+        if (index != -1) {
+            mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index), ItemListAdapter.PAYLOAD_SELECTION);
+        }
     }
 
     @Override
@@ -1376,14 +1425,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             return;
         }
 
-        int itemIndex = -1;
-        for (int index = mItems.size() - 1; index >= 0; index--) {
-            Item lItem = mItems.get(index);
-            if (lItem.getDescriptorId().equals(mSelectedItem.getDescriptorId())) {
-                itemIndex = index;
-                break;
-            }
-        }
+        int itemIndex = mItems.indexOfDescriptor(mSelectedItem.getDescriptorId());
 
         if (itemIndex != -1) {
             int position = mItemListAdapter.indexToPosition(itemIndex);
@@ -1521,6 +1563,13 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
         return mMessageFont;
     }
 
+    @Override
+    public int getItemThumbnailWidth() {
+
+        // The thumbnails are prefetched with this width by the ItemPrefetcher.
+        return ItemThumbnail.getItemWidth();
+    }
+
     public void closeReplyView() {
         if (DEBUG) {
             Log.d(LOG_TAG, "closeReplyView");
@@ -2118,7 +2167,10 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
         if (clearMode == ClearMode.CLEAR_MEDIA) {
             mConversationService.clearMediaAndFile();
         } else {
+            newItemsGeneration();
+            mPager.reset();
             mItems.clear();
+            mLastReadPeerItem = null;
             mItemListAdapter.notifyDataSetChanged();
             mEmptyConversationView.setVisibility(View.VISIBLE);
         }
@@ -2130,15 +2182,39 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             Log.d(LOG_TAG, "onGetDescriptors: descriptors=" + descriptors);
         }
 
+        // The older descriptors are loaded by the pager: the conversation service paging is not used anymore.
+        if (mPager.isOlderEvicted()) {
+            mLoadingDescriptors = false;
+            return;
+        }
+
         if (descriptors.isEmpty()) {
             mAllDescriptorsLoaded = true;
         }
 
         boolean firstObjects = mItems.isEmpty();
-        int firstNewItem = mItems.size();
 
-        mBatchUpdate = firstObjects;
+        final List<Item> page = createItems(descriptors);
+        mBatchUpdate = false;
+
+        if (canPrependItems(page)) {
+            prependItems(page, firstObjects);
+        } else {
+            for (Item item : page) {
+                addItem(item);
+            }
+            onItemsLoaded(firstObjects);
+        }
+    }
+
+    /**
+     * Create the items for the descriptors without inserting them in the list.
+     */
+    @NonNull
+    private List<Item> createItems(@NonNull List<Descriptor> descriptors) {
 
+        // Collect the items created for the descriptors: they are inserted in the list by a single sweep.
+        mItemCollector = new ArrayList<>(descriptors.size());
         for (Descriptor descriptor : descriptors) {
             switch (descriptor.getType()) {
                 case OBJECT_DESCRIPTOR:
@@ -2191,210 +2267,670 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             }
         }
 
-        if (mItems.isEmpty()) {
-            mEmptyConversationView.setVisibility(View.VISIBLE);
-        }
+        final List<Item> page = mItemCollector;
+        mItemCollector = null;
 
-        if (mBatchUpdate) {
-            mBatchUpdate = false;
+        return page;
+    }
 
-            if (mUIInitialized && !descriptors.isEmpty()) {
-                mItemListAdapter.notifyItemRangeInserted(firstNewItem, descriptors.size());
-            }
-        }
+    /**
+     * Check if the page of items is older than the items already displayed so that it can be built and
+     * inserted at the beginning of the list in one step.
+     */
+    private boolean canPrependItems(@NonNull List<Item> page) {
 
-        if (firstObjects) {
-            scrollToBottom();
-        }
+        if (page.isEmpty()) {
 
-        mLoadingDescriptors = false;
+            return false;
+        }
 
-        if (mReplyToDescriptorId != null) {
-            onReplyClick(mReplyToDescriptorId);
-        } else if (mDescriptorId != null) {
-            int itemIndex = -1;
-            for (int index = mItems.size() - 1; index >= 0; index--) {
-                Item item = mItems.get(index);
-                if (item.getDescriptorId().equals(mDescriptorId)) {
-                    itemIndex = index;
-                    break;
-                }
+        Item firstItem = null;
+        for (Item item : mItems) {
+            if (item.getType() != Item.ItemType.TIME && item.getType() != Item.ItemType.NAME) {
+                firstItem = item;
+                break;
             }
+        }
+        if (firstItem == null) {
 
-            if (itemIndex != -1) {
-                mDescriptorId = null;
-                Handler handler = new Handler();
-                int finalItemIndex = itemIndex;
-                handler.postDelayed(() -> {
-                    // Scroll only if the view is still valid.
-                    if (mItemListView != null) {
-                        mItemListView.scrollToPosition(finalItemIndex);
-                    }
-                }, 300);
+            return mItems.isEmpty();
+        }
 
-            } else if (!mAllDescriptorsLoaded) {
-                mLoadingDescriptors = true;
-                mConversationService.getPreviousObjectDescriptors();
+        for (Item item : page) {
+            if (item.compareTo(firstItem) >= 0) {
+
+                return false;
             }
         }
+
+        return true;
     }
 
-    @Override
-    public void onPushDescriptor(@NonNull Descriptor descriptor) {
+    private void prependItems(@NonNull List<Item> page, boolean firstObjects) {
         if (DEBUG) {
-            Log.d(LOG_TAG, "onPushDescriptor: descriptor=" + descriptor);
+            Log.d(LOG_TAG, "prependItems: page=" + page.size() + " firstObjects=" + firstObjects);
         }
 
-        switch (descriptor.getType()) {
-            case OBJECT_DESCRIPTOR:
-                addObjectDescriptor((ObjectDescriptor) descriptor);
-                scrollToBottom();
-                break;
+        // Only the most recent of our items read by the peer keeps the READ state.
+        Item lastReadPeerItem = null;
+        for (Item item : page) {
+            if (!item.isPeerItem() && item.getReadTimestamp() != 0 && item.getReadTimestamp() != -1) {
+                if (mLastReadPeerItem != null || (lastReadPeerItem != null && item.getTimestamp() < lastReadPeerItem.getTimestamp())) {
+                    item.resetState();
+                } else {
+                    if (lastReadPeerItem != null) {
+                        lastReadPeerItem.resetState();
+                    }
+                    lastReadPeerItem = item;
+                }
+            }
+        }
+        if (lastReadPeerItem != null) {
+            mLastReadPeerItem = lastReadPeerItem;
+        }
 
-            case IMAGE_DESCRIPTOR:
-                addImageDescriptor((ImageDescriptor) descriptor);
-                scrollToBottom();
-                break;
+        final int generation = mItemsGeneration;
+        final ItemTimelineBuilder builder = new ItemTimelineBuilder(new ItemDecorator(getMemberNames()), page);
+        mLoadingDescriptors = true;
+        addPendingItems(page);
+        getTwinmeContext().execute(() -> {
+            final List<Item> items = builder.build();
 
-            case AUDIO_DESCRIPTOR:
-                addAudioDescriptor((AudioDescriptor) descriptor);
-                scrollToBottom();
-                break;
+            runOnUiThread(() -> {
+                if (generation != mItemsGeneration || isFinishing()) {
 
-            case VIDEO_DESCRIPTOR:
-                addVideoDescriptor((VideoDescriptor) descriptor);
-                scrollToBottom();
-                break;
+                    return;
+                }
 
-            case NAMED_FILE_DESCRIPTOR:
-                addNamedFileDescriptor((NamedFileDescriptor) descriptor);
-                scrollToBottom();
-                break;
+                builder.apply();
+                insertItems(items);
+                removePendingItems(page);
+                onItemsLoaded(firstObjects);
+            });
+        });
+    }
 
-            case TWINCODE_DESCRIPTOR:
-                addTwincodeDescriptor((TwincodeDescriptor) descriptor);
-                scrollToBottom();
-                break;
+    private void insertItems(@NonNull List<Item> items) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "insertItems: items=" + items.size());
+        }
 
-            case CLEAR_DESCRIPTOR:
-                addClearDescriptor((ClearDescriptor) descriptor);
-                scrollToBottom();
-                break;
+        final Item firstItem = findDecoratedItem(0, 1);
+        mItems.addAll(0, items);
+        if (mUIInitialized) {
+            mItemListAdapter.notifyItemRangeInserted(mItemListAdapter.indexToPosition(0), items.size());
+        }
 
-            default:
-                break;
+        // The junction between the page and the items already displayed is decorated by the decoration pass.
+        if (firstItem != null) {
+            invalidateDecoration(firstItem);
         }
     }
 
-    @Override
-    public void onPopDescriptor(@NonNull Descriptor descriptor) {
+    private void appendItems(@NonNull List<Item> page) {
         if (DEBUG) {
-            Log.d(LOG_TAG, "onPopDescriptor: descriptor=" + descriptor);
+            Log.d(LOG_TAG, "appendItems: page=" + page.size());
         }
 
-        int countItem = mItems.size();
-
-        boolean lastItemVisible = isLastItemVisible();
-
-        switch (descriptor.getType()) {
-            case OBJECT_DESCRIPTOR:
-                addObjectDescriptor((ObjectDescriptor) descriptor);
-                break;
-
-            case IMAGE_DESCRIPTOR:
-                addImageDescriptor((ImageDescriptor) descriptor);
-                break;
-
-            case NAMED_FILE_DESCRIPTOR:
-                addNamedFileDescriptor((NamedFileDescriptor) descriptor);
-                break;
+        // The most recent of our items read by the peer keeps the READ state.
+        Item lastReadPeerItem = mLastReadPeerItem;
+        for (Item item : page) {
+            if (!item.isPeerItem() && item.getReadTimestamp() != 0 && item.getReadTimestamp() != -1) {
+                if (lastReadPeerItem != null && item.getTimestamp() < lastReadPeerItem.getTimestamp()) {
+                    item.resetState();
+                } else {
+                    if (lastReadPeerItem != null) {
+                        lastReadPeerItem.resetState();
+                        int index = lastReadPeerItem == mLastReadPeerItem ? mItems.indexOfItem(lastReadPeerItem) : -1;
+                        if (index != -1 && mUIInitialized) {
+                            mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
+                        }
+                    }
+                    lastReadPeerItem = item;
+                }
+            }
+        }
+        mLastReadPeerItem = lastReadPeerItem;
 
-            case VIDEO_DESCRIPTOR:
-                addVideoDescriptor((VideoDescriptor) descriptor);
-                break;
+        final int generation = mItemsGeneration;
+        final ItemTimelineBuilder builder = new ItemTimelineBuilder(new ItemDecorator(getMemberNames()), page);
+        addPendingItems(page);
+        getTwinmeContext().execute(() -> {
+            final List<Item> items = builder.build();
 
-            case INVITATION_DESCRIPTOR:
-                addInvitationDescriptor((InvitationDescriptor) descriptor);
-                break;
+            runOnUiThread(() -> {
+                if (generation != mItemsGeneration || isFinishing()) {
 
-            case TRANSIENT_OBJECT_DESCRIPTOR:
-                if (getTypingAction(descriptor) == Typing.Action.START && !lastItemVisible) {
                     return;
                 }
-                addTransientObjectDescriptor((TransientObjectDescriptor) descriptor);
-                break;
-
-            case CALL_DESCRIPTOR:
-                addCallDescriptor((CallDescriptor) descriptor);
-                break;
-
-            case TWINCODE_DESCRIPTOR:
-                addTwincodeDescriptor((TwincodeDescriptor) descriptor);
-                break;
-
-            case CLEAR_DESCRIPTOR:
-                addClearDescriptor((ClearDescriptor) descriptor);
-                break;
-
-            default:
-                break;
-        }
 
-        if (mItems.size() > countItem || descriptor.getType() == Descriptor.Type.TRANSIENT_OBJECT_DESCRIPTOR) {
+                builder.apply();
+                final int index = mItems.size();
+                mItems.addAll(index, items);
+                if (mUIInitialized) {
+                    mItemListAdapter.notifyItemRangeInserted(mItemListAdapter.indexToPosition(index), items.size());
+                }
 
-            if (shouldRunHapticFeedback(descriptor)) {
-                hapticFeedback();
-            }
-            if (!lastItemVisible && descriptor.getType() != Descriptor.Type.TRANSIENT_OBJECT_DESCRIPTOR) {
-                mScrollIndicatorCount++;
-                updateScrollIndicator();
-            } else if (getTypingAction(descriptor) == null || lastItemVisible) {
-                scrollToBottom();
-            }
-        }
+                // The junction between the items already displayed and the page is decorated by the decoration pass.
+                Item firstItem = findDecoratedItem(index, 1);
+                if (firstItem != null) {
+                    invalidateDecoration(firstItem);
+                }
+                removePendingItems(page);
+                onItemsLoaded(false);
+            });
+        });
     }
 
-    private boolean isLastItemVisible() {
-        // item position can be greater than mItems.size() if it's a typing indicator.
-        return mItemListViewLayoutManager != null && mItemListViewLayoutManager.findLastVisibleItemPosition() >= mItems.size();
-    }
+    /**
+     * Load the descriptors which precede the first item: they are provided by the conversation service
+     * unless some of them were evicted from the window.
+     */
+    private void loadPreviousDescriptors() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "loadPreviousDescriptors");
+        }
 
-    @Nullable
-    private Typing.Action getTypingAction(@NonNull Descriptor descriptor) {
-        if (!(descriptor instanceof TransientObjectDescriptor)) {
-            return null;
+        // Once an end of the window was evicted, the older descriptors are always loaded by the pager.
+        if (mPager.isNewerEvicted() && mConversation != null) {
+            mPager.setOlderEvicted(true);
         }
 
-        if (!(((TransientObjectDescriptor) descriptor).getObject() instanceof Typing)) {
-            return null;
+        mLoadingDescriptors = true;
+        if (!mPager.isOlderEvicted() || mConversation == null) {
+            mConversationService.getPreviousObjectDescriptors();
+            return;
         }
 
-        return ((Typing) ((TransientObjectDescriptor) descriptor).getObject()).getAction();
-    }
+        final Item firstItem = findDecoratedItem(0, 1);
+        final long beforeTimestamp = firstItem != null ? firstItem.getTimestamp() : Long.MAX_VALUE;
+        final Conversation conversation = mConversation;
+        final DisplayCallsMode callsMode = getTwinmeApplication().displayCallsMode();
+        final int generation = mItemsGeneration;
+        getTwinmeContext().execute(() -> {
+            final ConversationPager.Page page = mPager.loadOlder(conversation, callsMode, beforeTimestamp);
 
-    private boolean shouldRunHapticFeedback(@NonNull Descriptor descriptor) {
-        if (descriptor.getType() == Descriptor.Type.TRANSIENT_OBJECT_DESCRIPTOR) {
-            Object object = ((TransientObjectDescriptor) descriptor).getObject();
+            runOnUiThread(() -> {
+                if (generation != mItemsGeneration || isFinishing()) {
 
-            if (object instanceof Typing) {
-                Typing typing = (Typing) object;
-                if (typing.getAction() == Typing.Action.STOP) {
-                    // No haptic feedback when typing stops.
-                    return false;
+                    return;
                 }
 
-                // No haptic feedback if typing indicator is not visible.
-                return isLastItemVisible();
-            }
-        }
-
-        return true;
+                if (page.end) {
+                    mAllDescriptorsLoaded = true;
+                }
+                final boolean firstObjects = mItems.isEmpty();
+                final List<Item> items = createItems(page.descriptors);
+                if (canPrependItems(items)) {
+                    prependItems(items, firstObjects);
+                } else {
+                    for (Item item : items) {
+                        addItem(item);
+                    }
+                    onItemsLoaded(firstObjects);
+                }
+            });
+        });
     }
 
-    @Override
-    public void onUpdateDescriptor(@NonNull Descriptor descriptor, UpdateType updateType) {
+    /**
+     * Load the descriptors which follow the last item when they were evicted from the window.
+     */
+    private void loadNextDescriptors() {
         if (DEBUG) {
-            Log.d(LOG_TAG, "onUpdateDescriptor: descriptor=" + descriptor + " updateType=" + updateType);
+            Log.d(LOG_TAG, "loadNextDescriptors");
+        }
+
+        final Item firstItem = findDecoratedItem(0, 1);
+        final Item lastItem = findDecoratedItem(mItems.size() - 1, -1);
+        if (lastItem == null || mConversation == null) {
+            reloadLastDescriptors();
+            return;
+        }
+
+        mLoadingDescriptors = true;
+        final long afterTimestamp = lastItem.getTimestamp();
+        final long timeSpan = mPager.getTimeSpan(firstItem, lastItem, mItems.size());
+        final Conversation conversation = mConversation;
+        final DisplayCallsMode callsMode = getTwinmeApplication().displayCallsMode();
+        final int generation = mItemsGeneration;
+        getTwinmeContext().execute(() -> {
+            final ConversationPager.Page page = mPager.loadNewer(conversation, callsMode, afterTimestamp, timeSpan);
+
+            runOnUiThread(() -> {
+                if (generation != mItemsGeneration || isFinishing()) {
+
+                    return;
+                }
+
+                if (page.end) {
+                    mPager.setNewerEvicted(false);
+                }
+                final List<Item> items = createItems(page.descriptors);
+                if (items.isEmpty()) {
+                    mLoadingDescriptors = false;
+                } else {
+                    appendItems(items);
+                }
+            });
+        });
+    }
+
+    /**
+     * The items are cleared or replaced: the pages and decorations computed in the background are dropped.
+     */
+    private void newItemsGeneration() {
+
+        mItemsGeneration++;
+        mDecorationItems.clear();
+        mDecorationRunning = false;
+        mLoadingDescriptors = false;
+        mPendingDescriptorIds.clear();
+        mPendingItems.clear();
+    }
+
+    /**
+     * A page is built in the background: its descriptors are neither in the items nor in their index until
+     * it is inserted, the items received for them are kept until then.
+     */
+    private void addPendingItems(@NonNull List<Item> page) {
+
+        for (Item item : page) {
+            if (item.getDescriptorId().sequenceId != DEFAULT_SEQUENCE_ID) {
+                mPendingDescriptorIds.add(item.getDescriptorId());
+            }
+        }
+    }
+
+    /**
+     * The page is inserted: replace its items by the items received while it was built.
+     */
+    private void removePendingItems(@NonNull List<Item> page) {
+
+        for (Item item : page) {
+            mPendingDescriptorIds.remove(item.getDescriptorId());
+        }
+
+        final List<Item> pendingItems = new ArrayList<>(mPendingItems);
+        mPendingItems.clear();
+        for (Item item : pendingItems) {
+            if (mPendingDescriptorIds.contains(item.getDescriptorId())) {
+                mPendingItems.add(item);
+                continue;
+            }
+
+            final int index = mItems.indexOfDescriptor(item.getDescriptorId());
+            if (index == -1) {
+                addItem(item);
+            } else {
+                mItems.set(index, item);
+                invalidateDecoration(item);
+                if (mUIInitialized) {
+                    mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the window and load the last page of the conversation.
+     */
+    private void reloadLastDescriptors() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "reloadLastDescriptors");
+        }
+
+        newItemsGeneration();
+        mItems.clear();
+        mLastReadPeerItem = null;
+        if (mUIInitialized) {
+            mItemListAdapter.notifyDataSetChanged();
+        }
+
+        // The conversation service paging is lost: the older descriptors are now loaded by the pager.
+        mPager.setNewerEvicted(false);
+        mPager.setOlderEvicted(true);
+        mAllDescriptorsLoaded = false;
+        loadPreviousDescriptors();
+    }
+
+    /**
+     * Evict the items which are far from the visible range when the list is bigger than the window.
+     */
+    private void trimWindow() {
+
+        if (mLoadingDescriptors || mIsMenuOpen || mSelectItemMode || !mUIInitialized) {
+            return;
+        }
+
+        // Convert the adapter positions to item indexes.
+        int firstVisible = mItemListViewLayoutManager.findFirstVisibleItemPosition() - 1;
+        int lastVisible = mItemListViewLayoutManager.findLastVisibleItemPosition() - 1;
+        if (firstVisible < 0 || lastVisible < 0) {
+            return;
+        }
+
+        int count = mPager.getOlderEviction(mItems, firstVisible, lastVisible);
+        if (count > 0) {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "trimWindow: evict " + count + " older items");
+            }
+
+            mItems.removeItems(0, count);
+            mItemListAdapter.notifyItemRangeRemoved(mItemListAdapter.indexToPosition(0), count);
+            mPager.setOlderEvicted(true);
+            mAllDescriptorsLoaded = false;
+
+            // The first item is decorated as the beginning of the window.
+            Item firstItem = findDecoratedItem(0, 1);
+            if (firstItem != null) {
+                invalidateDecoration(firstItem);
+            }
+            return;
+        }
+
+        int start = mPager.getNewerEviction(mItems, firstVisible, lastVisible);
+        if (start < mItems.size()) {
+            if (DEBUG) {
+                Log.d(LOG_TAG, "trimWindow: evict " + (mItems.size() - start) + " newer items");
+            }
+
+            count = mItems.size() - start;
+            mItems.removeItems(start, mItems.size());
+            mItemListAdapter.notifyItemRangeRemoved(mItemListAdapter.indexToPosition(start), count);
+            mPager.setNewerEvicted(true);
+
+            // Drop the separators which are now at the end of the window.
+            while (!mItems.isEmpty() && ItemDecorator.isSeparator(mItems.get(mItems.size() - 1).getType())) {
+                mItems.remove(mItems.size() - 1);
+                mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(mItems.size()));
+            }
+            Item lastItem = findDecoratedItem(mItems.size() - 1, -1);
+            if (lastItem != null) {
+                invalidateDecoration(lastItem);
+            }
+        }
+    }
+
+    private void onItemsLoaded(boolean firstObjects) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onItemsLoaded: firstObjects=" + firstObjects);
+        }
+
+        if (mItems.isEmpty()) {
+            mEmptyConversationView.setVisibility(View.VISIBLE);
+        } else {
+            mEmptyConversationView.setVisibility(View.GONE);
+        }
+
+        if (firstObjects) {
+            scrollToBottom();
+        }
+
+        mLoadingDescriptors = false;
+
+        if (mReplyToDescriptorId != null) {
+            onReplyClick(mReplyToDescriptorId);
+        } else if (mDescriptorId != null) {
+            int itemIndex = mItems.indexOfDescriptor(mDescriptorId);
+
+            if (itemIndex != -1) {
+                mDescriptorId = null;
+                Handler handler = new Handler();
+                int finalItemIndex = itemIndex;
+                handler.postDelayed(() -> {
+                    // Scroll only if the view is still valid.
+                    if (mItemListView != null) {
+                        mItemListView.scrollToPosition(finalItemIndex);
+                    }
+                }, 300);
+
+            } else if (mConversation != null) {
+                loadDescriptorWindow(mDescriptorId);
+            } else if (!mAllDescriptorsLoaded) {
+                loadPreviousDescriptors();
+            }
+        }
+    }
+
+    /**
+     * Replace the window by the descriptors around the target descriptor: a page of descriptors before
+     * and after the target are loaded by a single background task instead of walking back page per page.
+     * The window is then filled in both directions as the user scrolls.
+     */
+    private void loadDescriptorWindow(@NonNull DescriptorId descriptorId) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "loadDescriptorWindow: descriptorId=" + descriptorId);
+        }
+
+        final Conversation conversation = mConversation;
+        if (conversation == null) {
+            return;
+        }
+
+        newItemsGeneration();
+        mLoadingDescriptors = true;
+        final DisplayCallsMode callsMode = getTwinmeApplication().displayCallsMode();
+        final int generation = mItemsGeneration;
+        getTwinmeContext().execute(() -> {
+            final Descriptor descriptor = getTwinmeContext().getConversationService().getDescriptor(descriptorId);
+            final ConversationPager.Page olderPage;
+            final ConversationPager.Page newerPage;
+            if (descriptor != null) {
+                // The older page includes the target descriptor.
+                olderPage = mPager.loadOlder(conversation, callsMode, descriptor.getCreatedTimestamp() + 1);
+                newerPage = mPager.loadNewer(conversation, callsMode, descriptor.getCreatedTimestamp(), 0);
+            } else {
+                olderPage = null;
+                newerPage = null;
+            }
+
+            runOnUiThread(() -> {
+                if (generation != mItemsGeneration || isFinishing()) {
+
+                    return;
+                }
+
+                if (olderPage == null) {
+                    // The descriptor does not exist anymore: keep the current window.
+                    mReplyToDescriptorId = null;
+                    mDescriptorId = null;
+                    mLoadingDescriptors = false;
+                    return;
+                }
+
+                mItems.clear();
+                mLastReadPeerItem = null;
+                if (mUIInitialized) {
+                    mItemListAdapter.notifyDataSetChanged();
+                }
+                mPager.setOlderEvicted(true);
+                mPager.setNewerEvicted(!newerPage.end);
+                mAllDescriptorsLoaded = olderPage.end;
+
+                final List<Descriptor> descriptors = new ArrayList<>(olderPage.descriptors.size() + newerPage.descriptors.size());
+                descriptors.addAll(olderPage.descriptors);
+                descriptors.addAll(newerPage.descriptors);
+                final List<Item> items = createItems(descriptors);
+
+                // The target can be rejected by the descriptor filter: don't try to load it again.
+                boolean found = false;
+                for (Item item : items) {
+                    if (descriptorId.equals(item.getDescriptorId())) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    mReplyToDescriptorId = null;
+                    mDescriptorId = null;
+                }
+
+                prependItems(items, false);
+            });
+        });
+    }
+
+    @Override
+    public void onPushDescriptor(@NonNull Descriptor descriptor) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onPushDescriptor: descriptor=" + descriptor);
+        }
+
+        switch (descriptor.getType()) {
+            case OBJECT_DESCRIPTOR:
+                addObjectDescriptor((ObjectDescriptor) descriptor);
+                scrollToBottom();
+                break;
+
+            case IMAGE_DESCRIPTOR:
+                addImageDescriptor((ImageDescriptor) descriptor);
+                scrollToBottom();
+                break;
+
+            case AUDIO_DESCRIPTOR:
+                addAudioDescriptor((AudioDescriptor) descriptor);
+                scrollToBottom();
+                break;
+
+            case VIDEO_DESCRIPTOR:
+                addVideoDescriptor((VideoDescriptor) descriptor);
+                scrollToBottom();
+                break;
+
+            case NAMED_FILE_DESCRIPTOR:
+                addNamedFileDescriptor((NamedFileDescriptor) descriptor);
+                scrollToBottom();
+                break;
+
+            case TWINCODE_DESCRIPTOR:
+                addTwincodeDescriptor((TwincodeDescriptor) descriptor);
+                scrollToBottom();
+                break;
+
+            case CLEAR_DESCRIPTOR:
+                addClearDescriptor((ClearDescriptor) descriptor);
+                scrollToBottom();
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void onPopDescriptor(@NonNull Descriptor descriptor) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onPopDescriptor: descriptor=" + descriptor);
+        }
+
+        int countItem = mItems.size();
+
+        boolean lastItemVisible = isLastItemVisible();
+
+        switch (descriptor.getType()) {
+            case OBJECT_DESCRIPTOR:
+                addObjectDescriptor((ObjectDescriptor) descriptor);
+                break;
+
+            case IMAGE_DESCRIPTOR:
+                addImageDescriptor((ImageDescriptor) descriptor);
+                break;
+
+            case NAMED_FILE_DESCRIPTOR:
+                addNamedFileDescriptor((NamedFileDescriptor) descriptor);
+                break;
+
+            case VIDEO_DESCRIPTOR:
+                addVideoDescriptor((VideoDescriptor) descriptor);
+                break;
+
+            case INVITATION_DESCRIPTOR:
+                addInvitationDescriptor((InvitationDescriptor) descriptor);
+                break;
+
+            case TRANSIENT_OBJECT_DESCRIPTOR:
+                if (getTypingAction(descriptor) == Typing.Action.START && !lastItemVisible) {
+                    return;
+                }
+                addTransientObjectDescriptor((TransientObjectDescriptor) descriptor);
+                break;
+
+            case CALL_DESCRIPTOR:
+                addCallDescriptor((CallDescriptor) descriptor);
+                break;
+
+            case TWINCODE_DESCRIPTOR:
+                addTwincodeDescriptor((TwincodeDescriptor) descriptor);
+                break;
+
+            case CLEAR_DESCRIPTOR:
+                addClearDescriptor((ClearDescriptor) descriptor);
+                break;
+
+            default:
+                break;
+        }
+
+        if (mItems.size() > countItem || descriptor.getType() == Descriptor.Type.TRANSIENT_OBJECT_DESCRIPTOR) {
+
+            if (shouldRunHapticFeedback(descriptor)) {
+                hapticFeedback();
+            }
+            if (!lastItemVisible && descriptor.getType() != Descriptor.Type.TRANSIENT_OBJECT_DESCRIPTOR) {
+                mScrollIndicatorCount++;
+                updateScrollIndicator();
+            } else if (getTypingAction(descriptor) == null || lastItemVisible) {
+                scrollToBottom();
+            }
+        } else if (mPager.isNewerEvicted() && descriptor.getType() != Descriptor.Type.TRANSIENT_OBJECT_DESCRIPTOR) {
+            // The descriptor is after the window and will be loaded with the next page.
+            mScrollIndicatorCount++;
+            updateScrollIndicator();
+        }
+    }
+
+    private boolean isLastItemVisible() {
+        // item position can be greater than mItems.size() if it's a typing indicator.
+        return mItemListViewLayoutManager != null && mItemListViewLayoutManager.findLastVisibleItemPosition() >= mItems.size();
+    }
+
+    @Nullable
+    private Typing.Action getTypingAction(@NonNull Descriptor descriptor) {
+        if (!(descriptor instanceof TransientObjectDescriptor)) {
+            return null;
+        }
+
+        if (!(((TransientObjectDescriptor) descriptor).getObject() instanceof Typing)) {
+            return null;
+        }
+
+        return ((Typing) ((TransientObjectDescriptor) descriptor).getObject()).getAction();
+    }
+
+    private boolean shouldRunHapticFeedback(@NonNull Descriptor descriptor) {
+        if (descriptor.getType() == Descriptor.Type.TRANSIENT_OBJECT_DESCRIPTOR) {
+            Object object = ((TransientObjectDescriptor) descriptor).getObject();
+
+            if (object instanceof Typing) {
+                Typing typing = (Typing) object;
+                if (typing.getAction() == Typing.Action.STOP) {
+                    // No haptic feedback when typing stops.
+                    return false;
+                }
+
+                // No haptic feedback if typing indicator is not visible.
+                return isLastItemVisible();
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void onUpdateDescriptor(@NonNull Descriptor descriptor, UpdateType updateType) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onUpdateDescriptor: descriptor=" + descriptor + " updateType=" + updateType);
         }
 
         int itemIndex = -1;
@@ -2402,13 +2938,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             case CONTENT:
                 switch (descriptor.getType()) {
                     case IMAGE_DESCRIPTOR:
-                        for (int index = mItems.size() - 1; index >= 0; index--) {
-                            Item item = mItems.get(index);
-                            if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                                itemIndex = index;
-                                break;
-                            }
-                        }
+                        itemIndex = mItems.indexOfDescriptor(descriptor.getDescriptorId());
 
                         if (itemIndex == -1) {
                             addImageDescriptor((ImageDescriptor) descriptor);
@@ -2442,13 +2972,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
                         break;
 
                     case VIDEO_DESCRIPTOR:
-                        for (int index = mItems.size() - 1; index >= 0; index--) {
-                            Item item = mItems.get(index);
-                            if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                                itemIndex = index;
-                                break;
-                            }
-                        }
+                        itemIndex = mItems.indexOfDescriptor(descriptor.getDescriptorId());
 
                         if (itemIndex == -1) {
                             addVideoDescriptor((VideoDescriptor) descriptor);
@@ -2472,13 +2996,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
                         break;
 
                     case NAMED_FILE_DESCRIPTOR:
-                        for (int index = mItems.size() - 1; index >= 0; index--) {
-                            Item item = mItems.get(index);
-                            if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                                itemIndex = index;
-                                break;
-                            }
-                        }
+                        itemIndex = mItems.indexOfDescriptor(descriptor.getDescriptorId());
 
                         if (itemIndex == -1) {
                             addNamedFileDescriptor((NamedFileDescriptor) descriptor);
@@ -2502,13 +3020,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
                         break;
 
                     case CALL_DESCRIPTOR:
-                        for (int index = mItems.size() - 1; index >= 0; index--) {
-                            Item item = mItems.get(index);
-                            if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                                itemIndex = index;
-                                break;
-                            }
-                        }
+                        itemIndex = mItems.indexOfDescriptor(descriptor.getDescriptorId());
 
                         if (itemIndex == -1) {
                             addCallDescriptor((CallDescriptor) descriptor);
@@ -2529,13 +3041,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
                         break;
 
                     case OBJECT_DESCRIPTOR:
-                        for (int index = mItems.size() - 1; index >= 0; index--) {
-                            Item item = mItems.get(index);
-                            if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                                itemIndex = index;
-                                break;
-                            }
-                        }
+                        itemIndex = mItems.indexOfDescriptor(descriptor.getDescriptorId());
 
                         if (itemIndex == -1) {
                             addObjectDescriptor((ObjectDescriptor) descriptor);
@@ -2565,17 +3071,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
 
             case TIMESTAMPS:
                 int lastReadPeerItemIndex = -1;
-                int updatedItemIndex = -1;
-                for (int index = mItems.size() - 1; index >= 0; index--) {
-                    Item item = mItems.get(index);
-                    if (item == mLastReadPeerItem) {
-                        lastReadPeerItemIndex = index;
-                    }
-                    if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                        updatedItemIndex = index;
-                        break;
-                    }
-                }
+                int updatedItemIndex = mItems.indexOfDescriptor(descriptor.getDescriptorId());
                 if (updatedItemIndex != -1) {
                     Item updatedItem = mItems.get(updatedItemIndex);
                     updatedItem.updateTimestamps(descriptor);
@@ -2589,15 +3085,7 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
                             mLastReadPeerItem = updatedItem;
                             if (lastReadPeerItem != null) {
                                 lastReadPeerItem.resetState();
-                                if (lastReadPeerItemIndex == -1) {
-                                    for (int index = updatedItemIndex - 1; index >= 0; index--) {
-                                        Item item = mItems.get(index);
-                                        if (item == lastReadPeerItem) {
-                                            lastReadPeerItemIndex = index;
-                                            break;
-                                        }
-                                    }
-                                }
+                                lastReadPeerItemIndex = mItems.indexOfItem(lastReadPeerItem);
                             }
                         }
                     } else {
@@ -2625,21 +3113,14 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             case LOCAL_ANNOTATIONS:
             case PEER_ANNOTATIONS:
 
-                int annotationItemIndex = -1;
-                for (int index = mItems.size() - 1; index >= 0; index--) {
-                    Item item = mItems.get(index);
-                    if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                        annotationItemIndex = index;
-                        break;
-                    }
-                }
+                int annotationItemIndex = mItems.indexOfDescriptor(descriptor.getDescriptorId());
 
                 if (annotationItemIndex != -1) {
                     Item updatedItem = mItems.get(annotationItemIndex);
                     updatedItem.updateAnnotations(descriptor);
 
                     if (mUIInitialized) {
-                        mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(annotationItemIndex));
+                        mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(annotationItemIndex), ItemListAdapter.PAYLOAD_ANNOTATIONS);
 
                         if (annotationItemIndex == mItems.size() - 1) {
                             scrollToBottom();
@@ -2657,14 +3138,13 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             Log.d(LOG_TAG, "onMarkDescriptorRead: descriptor=" + descriptor);
         }
 
-        for (int index = mItems.size() - 1; index >= 0; index--) {
-            Item item = mItems.get(index);
-            if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                item.updateTimestamps(descriptor);
+        mReadMarker.onMarked(descriptor.getDescriptorId());
 
-                mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
-                break;
-            }
+        int index = mItems.indexOfDescriptor(descriptor.getDescriptorId());
+        if (index != -1) {
+            mItems.get(index).updateTimestamps(descriptor);
+
+            mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
         }
     }
 
@@ -2674,14 +3154,11 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             Log.d(LOG_TAG, "onMarkDescriptorDeleted: descriptor=" + descriptor);
         }
 
-        for (int index = mItems.size() - 1; index >= 0; index--) {
-            Item item = mItems.get(index);
-            if (item.getDescriptorId().equals(descriptor.getDescriptorId())) {
-                item.updateTimestamps(descriptor);
+        int index = mItems.indexOfDescriptor(descriptor.getDescriptorId());
+        if (index != -1) {
+            mItems.get(index).updateTimestamps(descriptor);
 
-                mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
-                break;
-            }
+            mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
         }
     }
 
@@ -2707,6 +3184,9 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             Log.d(LOG_TAG, "onError: errorCode=" + errorCode + " message=" + message + " errorCallback=" + errorCallback);
         }
 
+        // The failed operation could be a markDescriptorRead(): allow the descriptors to be marked again.
+        mReadMarker.onError();
+
         super.onError(errorCode, message, () -> { /* do nothing */ });
     }
 
@@ -2803,12 +3283,9 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             mMenuItemView.post(this::closeMenu);
         }
 
-        for (int index = mItems.size() - 1; index >= 0; index--) {
-            Item lItem = mItems.get(index);
-            if (lItem.getDescriptorId().equals(descriptorId)) {
-                this.deleteItem(lItem, index);
-                break;
-            }
+        int index = mItems.indexOfDescriptor(descriptorId);
+        if (index != -1) {
+            this.deleteItem(mItems.get(index), index);
         }
     }
 
@@ -3127,7 +3604,10 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
         mItemListAdapter = new ItemListAdapter(this, this, mItems);
         mItemListAdapter.setHasStableIds(true);
         mItemListView.setHasFixedSize(false);
+        final ItemViewPool itemViewPool = new ItemViewPool();
+        mItemListView.setRecycledViewPool(itemViewPool);
         mItemListView.setAdapter(mItemListAdapter);
+        itemViewPool.preInflate(mItemListView);
         mItemListView.setItemViewCacheSize(Design.ITEM_LIST_CACHE_SIZE);
         mItemListView.setItemAnimator(null);
         mItemListView.setBackgroundColor(Design.CONVERSATION_BACKGROUND_COLOR);
@@ -3148,14 +3628,29 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
 
                 if (mItemListViewLayoutManager.findFirstVisibleItemPosition() < 20) {
                     if (!mLoadingDescriptors && !mAllDescriptorsLoaded && lastListSize != mItems.size()) {
-                        mLoadingDescriptors = true;
                         lastListSize = mItems.size();
-                        mConversationService.getPreviousObjectDescriptors();
+                        loadPreviousDescriptors();
+                    }
+                } else if (mItemListViewLayoutManager.findLastVisibleItemPosition() > mItems.size() - 20) {
+                    if (!mLoadingDescriptors && mPager.isNewerEvicted()) {
+                        loadNextDescriptors();
                     }
                 }
             }
+
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                super.onScrollStateChanged(recyclerView, newState);
+
+                // The adapter must not be changed while the RecyclerView is scrolling or computing a layout.
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    recyclerView.post(() -> trimWindow());
+                }
+            }
         });
 
+        mItemListView.addOnScrollListener(new ItemPrefetcher(getTwinmeContext(), mItemListView, mItemListViewLayoutManager, mItems, PREFETCH_ITEM_COUNT));
+
         mContainerRecyclerView = findViewById(R.id.conversation_activity_item_list_container_view);
         mContainerRecyclerView.setBackgroundColor(Design.CONVERSATION_BACKGROUND_COLOR);
 
@@ -3740,6 +4235,12 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             Log.d(LOG_TAG, "scrollToBottom");
         }
 
+        // The end of the conversation was evicted from the window: load it again.
+        if (mPager.isNewerEvicted()) {
+            reloadLastDescriptors();
+            return;
+        }
+
         if (mUIInitialized) {
 
             mItemListView.scrollToPosition(mItemListAdapter.getItemCount() - 1);
@@ -4380,382 +4881,150 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
     private void addItem(Item item) {
         if (DEBUG) {
             Log.d(LOG_TAG, "addItem: item=" + item);
-        }
-
-        if (item.getDescriptorId().sequenceId != DEFAULT_SEQUENCE_ID) {
-            for (Item lItem : mItems) {
-                if (lItem.getDescriptorId().equals(item.getDescriptorId())) {
-
-                    return;
-                }
-            }
-        }
-
-        Item lastReadPeerItem = null;
-        long lastReadPeerItemTimestamp = mLastReadPeerItem != null ? mLastReadPeerItem.getTimestamp() : -1;
-        if (!item.isPeerItem() && item.getReadTimestamp() != 0 && item.getReadTimestamp() != -1) {
-            if (item.getTimestamp() < lastReadPeerItemTimestamp) {
-                item.resetState();
-            } else if (item.getTimestamp() > lastReadPeerItemTimestamp) {
-                lastReadPeerItem = mLastReadPeerItem;
-                mLastReadPeerItem = item;
-            }
-        }
-
-        boolean notifyAdapter = mUIInitialized && !mBatchUpdate;
-
-        int itemIndex = -1;
-        for (int index = mItems.size() - 1; index >= 0; index--) {
-            Item lItem = mItems.get(index);
-            if (lItem.compareTo(item) <= 0) {
-                itemIndex = index + 1;
-                break;
-            }
-        }
-        if (itemIndex == -1) {
-            itemIndex = 0;
-        }
-        mItems.add(itemIndex, item);
-        if (notifyAdapter) {
-            mItemListAdapter.notifyItemInserted(mItemListAdapter.indexToPosition(itemIndex));
-        }
-
-        int previousItemIndex = itemIndex - 1;
-        Item previousItem = null;
-        if (previousItemIndex >= 0) {
-            previousItem = mItems.get(previousItemIndex);
-        }
-
-        int nextItemIndex = itemIndex + 1;
-        Item nextItem = null;
-        if (nextItemIndex < mItems.size()) {
-            nextItem = mItems.get(nextItemIndex);
-        }
-
-        if (nextItem != null && nextItem.getType() == Item.ItemType.TIME) {
-            int nextNextItemIndex = itemIndex + 2;
-            Item nextNextItem;
-            if (nextNextItemIndex < mItems.size()) {
-                nextNextItem = mItems.get(nextNextItemIndex);
-                if (nextNextItem != null && Math.abs(item.getTimestamp() - nextNextItem.getTimestamp()) < MAX_DELTA_TIMESTAMP2) {
-                    mItems.remove(nextItemIndex);
-                    if (notifyAdapter) {
-                        mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(nextItemIndex));
-                    }
-                    nextItem = nextNextItem;
-                }
-            }
-        }
-
-        boolean previousItemChanged = false;
-        boolean nextItemChanged = false;
-        switch (item.getType()) {
-            case MESSAGE:
-            case LINK:
-            case IMAGE:
-            case AUDIO:
-            case VIDEO:
-            case FILE:
-            case INVITATION:
-            case CALL:
-            case CLEAR:
-            case INVITATION_CONTACT:
-                if (previousItem != null) {
-                    switch (previousItem.getType()) {
-                        case MESSAGE:
-                        case LINK:
-                        case IMAGE:
-                        case AUDIO:
-                        case VIDEO:
-                        case FILE:
-                        case INVITATION:
-                        case CALL:
-                        case INVITATION_CONTACT:
-                            if (item.getTimestamp() - previousItem.getTimestamp() < MAX_DELTA_TIMESTAMP1) {
-                                int corners = previousItem.getCorners();
-                                previousItem.cornersBitwiseAnd(~(Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN));
-                                previousItemChanged = corners != previousItem.getCorners();
-                                item.cornersBitwiseAnd(~(Item.TOP_RIGHT | Item.TOP_LARGE_MARGIN));
-                            } else {
-                                int corners = previousItem.getCorners();
-                                previousItem.cornersBitwiseOr(Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN);
-                                previousItemChanged = corners != previousItem.getCorners();
-                            }
-                            break;
-
-                        case PEER_MESSAGE:
-                        case PEER_LINK:
-                        case PEER_IMAGE:
-                        case PEER_AUDIO:
-                        case PEER_VIDEO:
-                        case PEER_FILE:
-                        case PEER_INVITATION:
-                        case PEER_CALL:
-                        case PEER_INVITATION_CONTACT:
-                            int corners = previousItem.getCorners();
-                            previousItem.cornersBitwiseOr(Item.BOTTOM_LEFT | Item.BOTTOM_LARGE_MARGIN);
-                            boolean visibleAvatar = previousItem.getVisibleAvatar();
-                            previousItem.setVisibleAvatar(true);
-                            previousItemChanged = corners != previousItem.getCorners() || visibleAvatar != previousItem.getVisibleAvatar();
-                            item.cornersBitwiseOr(Item.TOP_RIGHT | Item.TOP_LARGE_MARGIN);
-                            break;
-
-                        case NAME:
-                        default:
-                            break;
-                    }
-                }
-
-                if (nextItem != null) {
-                    switch (nextItem.getType()) {
-                        case MESSAGE:
-                        case LINK:
-                        case IMAGE:
-                        case AUDIO:
-                        case VIDEO:
-                        case FILE:
-                        case INVITATION:
-                        case CALL:
-                        case INVITATION_CONTACT:
-                            if (nextItem.getTimestamp() - item.getTimestamp() < MAX_DELTA_TIMESTAMP1) {
-                                item.cornersBitwiseAnd(~(Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN));
-                                int corners = nextItem.getCorners();
-                                nextItem.cornersBitwiseAnd(~(Item.TOP_RIGHT | Item.TOP_LARGE_MARGIN));
-                                nextItemChanged = corners != nextItem.getCorners();
-                            } else {
-                                int corners = nextItem.getCorners();
-                                nextItem.cornersBitwiseOr(Item.TOP_RIGHT | Item.TOP_LARGE_MARGIN);
-                                nextItemChanged = corners != nextItem.getCorners();
-                            }
-                            break;
-
-                        case PEER_MESSAGE:
-                        case PEER_LINK:
-                        case PEER_IMAGE:
-                        case PEER_AUDIO:
-                        case PEER_VIDEO:
-                        case PEER_FILE:
-                        case PEER_INVITATION:
-                        case PEER_CALL:
-                        case PEER_INVITATION_CONTACT: {
-                            item.cornersBitwiseOr(Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN);
-                            int corners = nextItem.getCorners();
-                            nextItem.cornersBitwiseOr(Item.TOP_LEFT | Item.TOP_LARGE_MARGIN);
-                            nextItemChanged = corners != nextItem.getCorners();
-                            break;
-                        }
+        }
 
-                        default:
-                            break;
-                    }
-                }
-                break;
+        if (item.getDescriptorId().sequenceId != DEFAULT_SEQUENCE_ID && mItems.containsDescriptor(item.getDescriptorId())) {
 
-            case PEER_MESSAGE:
-            case PEER_LINK:
-            case PEER_IMAGE:
-            case PEER_AUDIO:
-            case PEER_VIDEO:
-            case PEER_FILE:
-            case PEER_INVITATION:
-            case PEER_CALL:
-            case PEER_INVITATION_CONTACT:
-                if (previousItem == null || !previousItem.isSamePeer(item)) {
-                    // For a group conversation, add the member's name before its item.
-                    Originator member = mGroupMembers.get(item.getPeerTwincodeOutboundId());
-                    if (member != null && member.getName() != null) {
-                        mItems.add(itemIndex, new NameItem(item.getTimestamp(), member.getName()));
-                        item.cornersBitwiseAnd(~Item.TOP_LARGE_MARGIN);
-                        nextItemIndex++;
-                    }
-                }
-                item.setVisibleAvatar(true);
-                if (previousItem != null) {
-                    switch (previousItem.getType()) {
-                        case MESSAGE:
-                        case LINK:
-                        case IMAGE:
-                        case AUDIO:
-                        case VIDEO:
-                        case FILE:
-                        case INVITATION:
-                        case CALL:
-                        case INVITATION_CONTACT: {
-                            int corners = previousItem.getCorners();
-                            previousItem.cornersBitwiseOr(Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN);
-                            previousItemChanged = corners != previousItem.getCorners();
-                            item.cornersBitwiseOr(Item.TOP_LEFT | Item.TOP_LARGE_MARGIN);
-                            break;
-                        }
+            return;
+        }
 
-                        case PEER_MESSAGE:
-                        case PEER_LINK:
-                        case PEER_IMAGE:
-                        case PEER_AUDIO:
-                        case PEER_FILE:
-                        case PEER_VIDEO:
-                        case PEER_INVITATION:
-                        case PEER_CALL:
-                        case PEER_INVITATION_CONTACT: {
-                            if (item.isSamePeer(previousItem) && item.getTimestamp() - previousItem.getTimestamp() < MAX_DELTA_TIMESTAMP1) {
-                                int corners = previousItem.getCorners();
-                                previousItem.cornersBitwiseAnd(~Item.BOTTOM_LEFT);
-                                boolean visibleAvatar = previousItem.getVisibleAvatar();
-                                previousItem.setVisibleAvatar(false);
-                                previousItemChanged = corners != previousItem.getCorners() || visibleAvatar != previousItem.getVisibleAvatar();
-                                item.cornersBitwiseAnd(~Item.TOP_LEFT);
-                            } else {
-                                int corners = previousItem.getCorners();
-                                previousItem.cornersBitwiseOr(Item.BOTTOM_LEFT);
-                                boolean visibleAvatar = previousItem.getVisibleAvatar();
-                                previousItem.setVisibleAvatar(true);
-                                previousItemChanged = corners != previousItem.getCorners() || visibleAvatar != previousItem.getVisibleAvatar();
-                            }
-                            if (item.isSamePeer(previousItem)) {
-                                previousItem.cornersBitwiseAnd(~Item.BOTTOM_LARGE_MARGIN);
-                            }
-                            item.cornersBitwiseAnd(~Item.TOP_LARGE_MARGIN);
-                            break;
-                        }
+        if (mItemCollector != null) {
+            mItemCollector.add(item);
 
-                        case NAME:
-                            if (previousItemIndex > 0) {
-                                previousItemIndex--;
-                                previousItem = mItems.get(previousItemIndex);
-                            }
-                            break;
+            return;
+        }
 
-                        default:
-                            break;
-                    }
-                }
+        // The descriptor belongs to a page which is built in the background: add it when the page is inserted.
+        if (mPendingDescriptorIds.contains(item.getDescriptorId())) {
+            mPendingItems.add(item);
 
-                if (nextItem != null) {
-                    if (nextItem.getType() == Item.ItemType.NAME) {
-                        // For a group conversation, the next item can be a name that precedes the message.
-                        // If this is the same name, remove it.
-                        // @todo SCz: we should not compare on a name.
-                        Originator member = mGroupMembers.get(item.getPeerTwincodeOutboundId());
-                        if (member != null && member.getName() != null && member.getName().equals(((NameItem) nextItem).getName())) {
-                            item.setVisibleAvatar(false);
-                            mItems.remove(nextItemIndex);
-                            mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(nextItemIndex));
-                            if (mItems.size() > nextItemIndex) {
-                                nextItem = mItems.get(nextItemIndex);
-                            }
-                        }
-                    }
-                    switch (nextItem.getType()) {
-                        case MESSAGE:
-                        case LINK:
-                        case IMAGE:
-                        case AUDIO:
-                        case VIDEO:
-                        case FILE:
-                        case INVITATION:
-                        case CALL:
-                        case INVITATION_CONTACT: {
-                            item.cornersBitwiseOr(Item.BOTTOM_LEFT | Item.BOTTOM_LARGE_MARGIN);
-                            int corners = nextItem.getCorners();
-                            nextItem.cornersBitwiseOr(Item.TOP_RIGHT | Item.TOP_LARGE_MARGIN);
-                            nextItemChanged = corners != nextItem.getCorners();
-                            break;
-                        }
+            return;
+        }
 
-                        case PEER_MESSAGE:
-                        case PEER_LINK:
-                        case PEER_IMAGE:
-                        case PEER_AUDIO:
-                        case PEER_VIDEO:
-                        case PEER_FILE:
-                        case PEER_INVITATION:
-                        case PEER_CALL:
-                        case PEER_INVITATION_CONTACT:
-                            if (item.isSamePeer(nextItem)) {
-                                if (nextItem.getTimestamp() - item.getTimestamp() < MAX_DELTA_TIMESTAMP1) {
-                                    item.cornersBitwiseAnd(~(Item.BOTTOM_LEFT | Item.BOTTOM_LARGE_MARGIN));
-                                    item.setVisibleAvatar(false);
-                                    int corners = nextItem.getCorners();
-                                    nextItem.cornersBitwiseAnd(~(Item.TOP_LEFT | Item.TOP_LARGE_MARGIN));
-                                    nextItemChanged = corners != nextItem.getCorners();
-                                } else {
-                                    item.setVisibleAvatar(false);
-                                    int corners = nextItem.getCorners();
-                                    nextItem.cornersBitwiseOr(Item.TOP_LEFT | Item.TOP_LARGE_MARGIN);
-                                    nextItemChanged = corners != nextItem.getCorners();
-                                }
-                            } else {
-                                // For a group conversation, add the member's name before its item.
-                                Originator member = mGroupMembers.get(nextItem.getPeerTwincodeOutboundId());
-                                if (member != null && member.getName() != null) {
-                                    mItems.add(nextItemIndex, new NameItem(nextItem.getTimestamp(), member.getName()));
-                                    nextItemIndex++;
-                                    if (notifyAdapter) {
-                                        mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(nextItemIndex));
-                                    }
-                                }
-                            }
-                            break;
+        // A new descriptor that follows the window is loaded with the next page.
+        if (mPager.isNewerEvicted() && item.getDescriptorId().sequenceId != DEFAULT_SEQUENCE_ID) {
+            Item lastItem = findDecoratedItem(mItems.size() - 1, -1);
+            if (lastItem != null && item.compareTo(lastItem) > 0) {
 
-                        case NAME:
-                        default:
-                            break;
-                    }
-                }
-                break;
+                return;
+            }
+        }
 
-            default:
-                break;
+        Item lastReadPeerItem = null;
+        long lastReadPeerItemTimestamp = mLastReadPeerItem != null ? mLastReadPeerItem.getTimestamp() : -1;
+        if (!item.isPeerItem() && item.getReadTimestamp() != 0 && item.getReadTimestamp() != -1) {
+            if (item.getTimestamp() < lastReadPeerItemTimestamp) {
+                item.resetState();
+            } else if (item.getTimestamp() > lastReadPeerItemTimestamp) {
+                lastReadPeerItem = mLastReadPeerItem;
+                mLastReadPeerItem = item;
+            }
         }
-        if (notifyAdapter && previousItemChanged) {
-            mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(previousItemIndex));
+
+        boolean notifyAdapter = mUIInitialized && !mBatchUpdate;
+
+        int itemIndex = mItems.insertionIndex(item);
+        mItems.add(itemIndex, item);
+        if (notifyAdapter) {
+            mItemListAdapter.notifyItemInserted(mItemListAdapter.indexToPosition(itemIndex));
         }
-        if (notifyAdapter && nextItemChanged) {
-            mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(nextItemIndex));
+
+        // Corners, avatars, name and time separators of a single item are computed at once, the initial
+        // batch is decorated by the decoration pass.
+        if (mBatchUpdate) {
+            invalidateDecoration(item);
+        } else {
+            decorateItem(item);
         }
 
         if (lastReadPeerItem != null) {
-            for (int index = mItems.size() - 1; index >= 0; index--) {
-                Item lItem = mItems.get(index);
-                if (lItem == lastReadPeerItem) {
-                    lItem.resetState();
-                    if (notifyAdapter) {
-                        mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
-                    }
-                    break;
+            int index = mItems.indexOfItem(lastReadPeerItem);
+            if (index != -1) {
+                lastReadPeerItem.resetState();
+                if (notifyAdapter) {
+                    mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
                 }
             }
         }
 
-        if (item.getType() == Item.ItemType.TIME) {
+        if (mItems.isEmpty()) {
+            mEmptyConversationView.setVisibility(View.VISIBLE);
+        } else {
+            mEmptyConversationView.setVisibility(View.GONE);
+        }
+    }
+
+    private void deleteItem(Item item, int indexDelete) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "deleteItem: item=" + item + " indexDelete= " + indexDelete);
+        }
 
+        if (!mUIInitialized) {
+            removeItem(item);
             return;
         }
 
-        boolean addTime;
-        if (previousItem != null) {
-            Item lastTimeItem = null;
-            for (int index = itemIndex - 1; index >= 0; index--) {
+        // If we have removed one of our message, we must scan our messages from the last sent
+        // and call updateState() to make sure the avatar is displayed if necessary on the last
+        // message that we have sent.
+        Item lastSentItem = null;
+        if (!item.isPeerItem()) {
+            for (int index = mItems.size() - 1; index >= 0; index--) {
                 Item lItem = mItems.get(index);
-                if (lItem.getType() == Item.ItemType.TIME) {
-                    lastTimeItem = lItem;
+                if (item != lItem && !lItem.isPeerItem() && !ItemDecorator.isSeparator(lItem.getType())) {
+                    lItem.updateState();
+                    lastSentItem = lItem;
                     break;
                 }
             }
+        }
 
-            if (lastTimeItem != null) {
-                addTime = previousItem.getType() != Item.ItemType.TIME && item.getTimestamp() - lastTimeItem.getTimestamp() > MAX_DELTA_TIMESTAMP2;
-            } else {
-                addTime = previousItem.getType() != Item.ItemType.TIME && item.getTimestamp() - previousItem.getTimestamp() > MAX_DELTA_TIMESTAMP2;
+        final Item lLastSentItem = lastSentItem;
+        mItemListView.post(() -> {
+            if (lLastSentItem != null && lLastSentItem.getState() != Item.ItemState.BOTH_DELETED) {
+                int index = mItems.indexOfItem(lLastSentItem);
+                if (index != -1) {
+                    mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index));
+                }
             }
-        } else {
-            addTime = true;
+
+            removeItem(item);
+        });
+    }
+
+    /**
+     * Remove the item from the list and schedule the decoration of its neighbors: the decoration pass
+     * updates their corners and removes the name and time separators which are no longer necessary.
+     */
+    private void removeItem(@NonNull Item item) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "removeItem: item=" + item);
+        }
+
+        int index = mItems.indexOfItem(item);
+        if (index < 0) {
+            return;
+        }
+
+        mItems.remove(index);
+        if (mUIInitialized) {
+            mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(index));
         }
 
-        if (addTime) {
-            mItems.add(itemIndex, new TimeItem(item.getTimestamp()));
-            if (notifyAdapter) {
-                mItemListAdapter.notifyItemInserted(mItemListAdapter.indexToPosition(itemIndex));
+        Item previousItem = findDecoratedItem(index - 1, -1);
+        Item nextItem = findDecoratedItem(index, 1);
+        if (previousItem != null) {
+            invalidateDecoration(previousItem);
+        }
+        if (nextItem != null) {
+            invalidateDecoration(nextItem);
+        } else {
+            // The item was the last one: drop the separators which are now at the end of the list.
+            while (!mItems.isEmpty() && ItemDecorator.isSeparator(mItems.get(mItems.size() - 1).getType())) {
+                mItems.remove(mItems.size() - 1);
+                if (mUIInitialized) {
+                    mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(mItems.size()));
+                }
             }
         }
 
@@ -4766,247 +5035,230 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
         }
     }
 
-    private void deleteItem(Item item, int indexDelete) {
-        if (DEBUG) {
-            Log.d(LOG_TAG, "deleteItem: item=" + item + " indexDelete= " + indexDelete);
+    /**
+     * Find the first item which is not a separator starting from the index and moving in the given direction.
+     */
+    @Nullable
+    private Item findDecoratedItem(int index, int direction) {
+
+        while (index >= 0 && index < mItems.size()) {
+            Item item = mItems.get(index);
+            if (!ItemDecorator.isSeparator(item.getType())) {
+
+                return item;
+            }
+            index += direction;
         }
 
-        int previousItemIndex = indexDelete - 1;
-        Item previousItem = null;
-        if (previousItemIndex >= 0) {
-            previousItem = mItems.get(previousItemIndex);
+        return null;
+    }
+
+    /**
+     * Mark the item so that its decoration and the decoration of its neighbors are computed again.
+     * The decoration of all the items marked while the UI thread is busy is made by a single pass.
+     */
+    private void invalidateDecoration(@NonNull Item item) {
+
+        mDecorationItems.add(item);
+        if (!mDecorationRunning) {
+            mDecorationRunning = true;
+            mDecorationHandler.post(this::startDecoration);
         }
+    }
 
-        int nextItemIndex = indexDelete + 1;
-        Item nextItem = null;
-        if (nextItemIndex < mItems.size()) {
-            nextItem = mItems.get(nextItemIndex);
+    private void startDecoration() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "startDecoration: items=" + mDecorationItems.size());
         }
 
-        Item nameItemToRemove = null;
-        Item nextNameItemToRemove = null;
-        if (previousItem != null) {
-            // Check if the previous name must be removed.
-            if (previousItem.getType() == Item.ItemType.NAME) {
-                if (nextItem == null) {
-                    nameItemToRemove = previousItem;
-                } else {
-                    switch (nextItem.getType()) {
-                        case NAME:
-                        case MESSAGE:
-                        case LINK:
-                        case AUDIO:
-                        case VIDEO:
-                        case FILE:
-                        case INVITATION:
-                        case CALL:
-                        case CLEAR:
-                        case INVITATION_CONTACT:
-                            nameItemToRemove = previousItem;
-                            break;
-
-                        default:
-                            break;
-                    }
+        int first = -1;
+        int last = -1;
+        for (Item item : mDecorationItems) {
+            int index = mItems.indexOfItem(item);
+            if (index >= 0) {
+                if (first < 0 || index < first) {
+                    first = index;
                 }
-                // See what is before that name if we remove it.
-                if (nameItemToRemove != null && previousItemIndex > 1) {
-                    previousItemIndex--;
-                    previousItem = mItems.get(previousItemIndex);
+                if (index > last) {
+                    last = index;
                 }
             }
-            switch (previousItem.getType()) {
-                case MESSAGE:
-                case LINK:
-                case IMAGE:
-                case AUDIO:
-                case VIDEO:
-                case FILE:
-                case INVITATION:
-                case CALL:
-                case CLEAR:
-                case INVITATION_CONTACT:
-                    if (nextItem == null) {
-                        previousItem.cornersBitwiseAnd(~Item.BOTTOM_RIGHT);
-                        previousItem.updateState();
-                    } else if (!previousItem.isSamePeer(nextItem)) {
-                        previousItem.cornersBitwiseOr(Item.BOTTOM_RIGHT);
-                        nextItem.cornersBitwiseOr(Item.TOP_RIGHT);
-                    } else if (nextItem.getTimestamp() - previousItem.getTimestamp() < MAX_DELTA_TIMESTAMP1) {
-                        previousItem.cornersBitwiseAnd(~Item.BOTTOM_RIGHT);
-                        nextItem.cornersBitwiseAnd(~Item.TOP_RIGHT);
-                    } else {
-                        previousItem.cornersBitwiseOr(Item.BOTTOM_RIGHT);
-                    }
-                    break;
-
-                case PEER_MESSAGE:
-                case PEER_LINK:
-                case PEER_IMAGE:
-                case PEER_AUDIO:
-                case PEER_VIDEO:
-                case PEER_FILE:
-                case PEER_INVITATION:
-                case PEER_CALL:
-                case PEER_CLEAR:
-                case PEER_INVITATION_CONTACT:
-                    if (nextItem == null) {
-                        previousItem.cornersBitwiseOr(Item.BOTTOM_LEFT);
-                        previousItem.setVisibleAvatar(true);
-                    } else if (!previousItem.isSamePeer(nextItem)) {
-                        previousItem.cornersBitwiseOr(Item.BOTTOM_LEFT);
-                        nextItem.cornersBitwiseOr(Item.TOP_LEFT);
-                        previousItem.setVisibleAvatar(true);
-                    } else if (nextItem.getTimestamp() - previousItem.getTimestamp() < MAX_DELTA_TIMESTAMP1) {
-                        previousItem.cornersBitwiseAnd(~Item.BOTTOM_LEFT);
-                        nextItem.cornersBitwiseAnd(~Item.TOP_LEFT);
-                        previousItem.setVisibleAvatar(false);
-                    } else {
-                        previousItem.cornersBitwiseOr(Item.BOTTOM_LEFT);
-                        nextItem.cornersBitwiseOr(Item.TOP_LEFT);
-                        previousItem.setVisibleAvatar(false);
-                    }
-                    break;
-
-                default:
-                    break;
-            }
+        }
+        mDecorationItems.clear();
+        if (first < 0) {
+            mDecorationRunning = false;
+            return;
         }
 
-        if (nextItem != null) {
-            switch (nextItem.getType()) {
-                case MESSAGE:
-                case LINK:
-                case IMAGE:
-                case AUDIO:
-                case VIDEO:
-                case FILE:
-                case INVITATION:
-                case CALL:
-                case CLEAR:
-                case INVITATION_CONTACT:
-                    if (previousItem == null) {
-                        nextItem.cornersBitwiseOr(Item.TOP_RIGHT);
-                    } else if (!previousItem.isSamePeer(nextItem)) {
-                        previousItem.cornersBitwiseOr(Item.BOTTOM_RIGHT);
-                        nextItem.cornersBitwiseOr(Item.TOP_RIGHT);
-                    } else if ((nextItem.getTimestamp() - previousItem.getTimestamp() < MAX_DELTA_TIMESTAMP1)) {
-                        previousItem.cornersBitwiseAnd(~Item.BOTTOM_RIGHT);
-                        nextItem.cornersBitwiseAnd(~Item.TOP_RIGHT);
-                    } else {
-                        nextItem.cornersBitwiseOr(Item.TOP_RIGHT);
-                    }
-                    break;
+        final DecorationWindow window = getDecorationWindow(first, last);
+        final ItemDecorator decorator = new ItemDecorator(getMemberNames());
+        final int version = mItems.getVersion();
+        final int generation = mItemsGeneration;
+        getTwinmeContext().execute(() -> {
+            final List<ItemDecorator.Decoration> decorations = window.decorate(decorator);
 
-                case PEER_MESSAGE:
-                case PEER_LINK:
-                case PEER_IMAGE:
-                case PEER_AUDIO:
-                case PEER_VIDEO:
-                case PEER_FILE:
-                case PEER_INVITATION:
-                case PEER_CALL:
-                case PEER_CLEAR:
-                case PEER_INVITATION_CONTACT:
-                    // Propagate the top left corner to the next item because current item is removed.
-                    if ((item.getCorners() & Item.TOP_LEFT) != 0) {
-                        nextItem.cornersBitwiseOr(Item.TOP_LEFT);
-                    }
-                    break;
+            runOnUiThread(() -> {
+                if (generation != mItemsGeneration || isFinishing()) {
+                    mDecorationRunning = false;
+                    return;
+                }
 
-                case NAME:
-                    if (nameItemToRemove != null && previousItem.isSamePeer(nextItem)) {
-                        nextNameItemToRemove = nextItem;
+                if (version != mItems.getVersion()) {
+                    // The list was modified while we computed the decoration: do it again on the same window.
+                    for (ItemDecorator.Decoration decoration : decorations) {
+                        mDecorationItems.add(decoration.item);
                     }
-                    break;
+                    startDecoration();
+                    return;
+                }
 
-                default:
-                    break;
-            }
-        }
+                applyDecorations(decorations);
+                if (mDecorationItems.isEmpty()) {
+                    mDecorationRunning = false;
+                } else {
+                    startDecoration();
+                }
+            });
+        });
+    }
 
-        if (!mUIInitialized) {
+    /**
+     * Decorate a single item and its neighbors on the UI thread: the window is small and the item is displayed
+     * with its corners, avatar and separators as soon as it is inserted.
+     */
+    private void decorateItem(@NonNull Item item) {
+
+        final int index = mItems.indexOfItem(item);
+        if (index < 0) {
             return;
         }
 
-        // If we have removed one of our message, we must scan our messages from the last sent
-        // and call updateState() to make sure the avatar is displayed if necessary on the last
-        // message that we have sent.
-        Item lastSentItem = null;
-        int lastSentItemIndex = 0;
-        if (!item.isPeerItem()) {
-            for (int index = mItems.size() - 1; index >= 0; index--) {
-                Item lItem = mItems.get(index);
-                if (item != lItem && !lItem.isPeerItem()) {
-                    lItem.updateState();
-                    lastSentItem = lItem;
-                    lastSentItemIndex = index;
+        final DecorationWindow window = getDecorationWindow(index, index);
+        applyDecorations(window.decorate(new ItemDecorator(getMemberNames())));
+    }
+
+    /**
+     * Build the decoration window of the items between first and last with the item that precedes and the
+     * item that follows them.
+     */
+    @NonNull
+    private DecorationWindow getDecorationWindow(int first, int last) {
+
+        Item previousItem = findDecoratedItem(first - 1, -1);
+        Item nextItem = findDecoratedItem(last + 1, 1);
+        long lastTimeTimestamp = -1;
+        if (previousItem != null) {
+            for (int index = mItems.indexOfItem(previousItem); index >= 0; index--) {
+                Item item = mItems.get(index);
+                if (item.getType() == Item.ItemType.TIME) {
+                    lastTimeTimestamp = item.getTimestamp();
                     break;
                 }
             }
         }
+        final List<ItemDecorator.Entry> entries = new ArrayList<>(last - first + 1);
+        for (int index = first; index <= last; index++) {
+            Item item = mItems.get(index);
+            if (!ItemDecorator.isSeparator(item.getType())) {
+                entries.add(new ItemDecorator.Entry(item));
+            }
+        }
 
-        final Item lPreviousItemToRemove = nameItemToRemove;
-        final Item lNextItemToRemove = nextNameItemToRemove;
-        final int lPreviousItemIndex = previousItemIndex;
-        final Item lPreviousItem = previousItem;
-        final Item lNextItem = nextItem;
-        final Item lLastSentItem = lastSentItem;
-        final int lLastSentItemIndex = lastSentItemIndex;
+        return new DecorationWindow(previousItem != null ? new ItemDecorator.Entry(previousItem) : null, entries,
+                nextItem != null ? new ItemDecorator.Entry(nextItem) : null, lastTimeTimestamp);
+    }
 
-        mItemListView.post(() -> {
-            if (lPreviousItem != null && lPreviousItem.getState() != Item.ItemState.BOTH_DELETED) {
-                mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(lPreviousItemIndex));
-            }
+    /**
+     * Apply the decorations computed by the ItemDecorator: update the items and insert or remove the time and
+     * name separators with the minimal set of adapter notifications.
+     */
+    private void applyDecorations(@NonNull List<ItemDecorator.Decoration> decorations) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "applyDecorations: decorations=" + decorations.size());
+        }
 
-            if (lNextItem != null && lNextItem.getState() != Item.ItemState.BOTH_DELETED) {
-                mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(nextItemIndex));
+        final boolean notifyAdapter = mUIInitialized && !mBatchUpdate;
+        int position = -1;
+        for (ItemDecorator.Decoration decoration : decorations) {
+            if (!decoration.updateSeparators) {
+                position = mItems.indexOfItem(decoration.item);
+                if (decoration.apply() && notifyAdapter && position >= 0) {
+                    mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(position));
+                }
+                position++;
+                continue;
             }
 
-            if (lLastSentItem != null && lLastSentItem.getState() != Item.ItemState.BOTH_DELETED) {
-                mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(lLastSentItemIndex));
+            if (position < 0) {
+                // Start at the first separator that precedes the item.
+                position = mItems.indexOfItem(decoration.item);
+                while (position > 0 && ItemDecorator.isSeparator(mItems.get(position - 1).getType())) {
+                    position--;
+                }
             }
 
-            if (lNextItemToRemove != null) {
-                mItems.remove(lNextItemToRemove);
-                mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(indexDelete + 1));
+            // Keep the existing separators when they match the decoration and remove the others.
+            boolean hasTime = false;
+            boolean hasName = false;
+            while (position < mItems.size() && mItems.get(position) != decoration.item) {
+                Item item = mItems.get(position);
+                boolean keep;
+                if (item.getType() == Item.ItemType.TIME) {
+                    keep = decoration.time && !hasTime && !hasName && item.getTimestamp() == decoration.item.getTimestamp();
+                    hasTime |= keep;
+                } else if (item.getType() == Item.ItemType.NAME) {
+                    keep = decoration.name != null && !hasName && decoration.name.equals(((NameItem) item).getName());
+                    hasName |= keep;
+                } else {
+                    keep = true;
+                }
+                if (keep) {
+                    position++;
+                } else {
+                    mItems.remove(position);
+                    if (notifyAdapter) {
+                        mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(position));
+                    }
+                }
             }
-            mItems.remove(item);
-            mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(indexDelete));
 
-            if (lPreviousItem != null && lPreviousItem.getType() == Item.ItemType.TIME) {
-                if (indexDelete < mItems.size()) {
-                    Item nextDeleteItem = mItems.get(indexDelete);
-                    if (nextDeleteItem.getType() == Item.ItemType.TIME) {
-                        mItems.remove(lPreviousItem);
-                        mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(indexDelete - 1));
-                    }
-                } else if (indexDelete == mItems.size()) {
-                    mItems.remove(lPreviousItem);
-                    mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(indexDelete - 1));
+            if (decoration.name != null && !hasName) {
+                mItems.add(position, new NameItem(decoration.item.getTimestamp(), decoration.name));
+                if (notifyAdapter) {
+                    mItemListAdapter.notifyItemInserted(mItemListAdapter.indexToPosition(position));
+                }
+                position++;
+            }
+            if (decoration.time && !hasTime) {
+                int timePosition = position - (hasName || decoration.name != null ? 1 : 0);
+                mItems.add(timePosition, new TimeItem(decoration.item.getTimestamp()));
+                if (notifyAdapter) {
+                    mItemListAdapter.notifyItemInserted(mItemListAdapter.indexToPosition(timePosition));
                 }
+                position++;
             }
 
-            if (lPreviousItemToRemove != null) {
-                mItems.remove(lPreviousItemToRemove);
-                mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(indexDelete - 1));
+            if (decoration.apply() && notifyAdapter) {
+                mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(position));
             }
+            position++;
+        }
+    }
 
-            if (!mItems.isEmpty()) {
-                Item lastItem = mItems.get(mItems.size() - 1);
+    /**
+     * Get a copy of the group member names that can be used by the decoration thread.
+     */
+    @NonNull
+    private Map<UUID, String> getMemberNames() {
 
-                if (lastItem.getType() == Item.ItemType.TIME || lastItem.getType() == Item.ItemType.NAME) {
-                    mItems.remove(lastItem);
-                    mItemListAdapter.notifyItemRemoved(mItemListAdapter.indexToPosition(mItems.size() - 1));
-                }
+        final Map<UUID, String> memberNames = new HashMap<>();
+        for (Map.Entry<UUID, Originator> member : mGroupMembers.entrySet()) {
+            if (member.getValue().getName() != null) {
+                memberNames.put(member.getKey(), member.getValue().getName());
             }
+        }
 
-            if (mItems.isEmpty()) {
-                mEmptyConversationView.setVisibility(View.VISIBLE);
-            } else {
-                mEmptyConversationView.setVisibility(View.GONE);
-            }
-        });
+        return memberNames;
     }
 
     private void deleteItems() {
@@ -5022,10 +5274,14 @@ public class ConversationActivity extends BaseItemActivity implements Conversati
             }
 
             item.setSelected(false);
+
+            int index = mItems.indexOfItem(item);
+            if (index != -1) {
+                mItemListAdapter.notifyItemChanged(mItemListAdapter.indexToPosition(index), ItemListAdapter.PAYLOAD_SELECTION);
+            }
         }
 
         mItemSelectedActionView.updateSelectedItems(0);
-        mItemListAdapter.notifyDataSetChanged();
     }
 
     private void resetSelectedItems() {
@@ -0,0 +1,347 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.conversationActivity;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.twinlife.twinlife.ConversationService;
+import org.twinlife.twinlife.ConversationService.Conversation;
+import org.twinlife.twinlife.ConversationService.Descriptor;
+import org.twinlife.twinlife.DisplayCallsMode;
+import org.twinlife.twinlife.Filter;
+import org.twinlife.twinme.ui.baseItemActivity.Item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sliding window on the conversation descriptors.
+ *
+ * The ConversationActivity only keeps the items of a window of descriptors around the visible range.  When the
+ * list grows above the window size, the items which are far from the visible range are evicted and the pager
+ * remembers that the older or newer descriptors must be loaded again when the user scrolls back to them.
+ *
+ * The database only provides the descriptors which precede a timestamp: older descriptors are loaded before the
+ * first descriptor of the window and newer descriptors are loaded after the last one by probing time ranges.
+ * The load methods make database queries and must be called from a background thread, the other methods
+ * must be called from the UI thread.
+ */
+final class ConversationPager {
+
+    // Time range used to probe newer descriptors when the density of the conversation is not known.
+    private static final long MIN_PROBE_TIME_SPAN = 1;
+    private static final long DEFAULT_PROBE_TIME_SPAN = 3600 * 1000L;
+    private static final int MAX_PROBES = 12;
+
+    /**
+     * Page of descriptors loaded by the pager.
+     */
+    static final class Page {
+        @NonNull
+        final List<Descriptor> descriptors;
+        // There are no more descriptors after this page in the load direction.
+        final boolean end;
+
+        Page(@NonNull List<Descriptor> descriptors, boolean end) {
+
+            this.descriptors = descriptors;
+            this.end = end;
+        }
+    }
+
+    @NonNull
+    private final ConversationService mConversationService;
+    @NonNull
+    private final Filter<Descriptor> mFilter;
+    private final int mWindowSize;
+    private final int mPageSize;
+    private boolean mOlderEvicted = false;
+    private boolean mNewerEvicted = false;
+
+    /**
+     * Create the pager.
+     *
+     * @param conversationService the conversation service used to load the descriptors.
+     * @param filter the filter to select the descriptors to display.
+     * @param windowSize the maximum number of items to keep in the window.
+     * @param pageSize the number of descriptors loaded by each query.
+     */
+    ConversationPager(@NonNull ConversationService conversationService, @NonNull Filter<Descriptor> filter,
+                      int windowSize, int pageSize) {
+
+        mConversationService = conversationService;
+        mFilter = filter;
+        mWindowSize = windowSize;
+        mPageSize = pageSize;
+    }
+
+    /**
+     * Older descriptors are not in the window and must be loaded by the pager.
+     */
+    boolean isOlderEvicted() {
+
+        return mOlderEvicted;
+    }
+
+    void setOlderEvicted(boolean evicted) {
+
+        mOlderEvicted = evicted;
+    }
+
+    /**
+     * Newer descriptors are not in the window and must be loaded by the pager: the window does not show the
+     * end of the conversation.
+     */
+    boolean isNewerEvicted() {
+
+        return mNewerEvicted;
+    }
+
+    void setNewerEvicted(boolean evicted) {
+
+        mNewerEvicted = evicted;
+    }
+
+    void reset() {
+
+        mOlderEvicted = false;
+        mNewerEvicted = false;
+    }
+
+    /**
+     * Get the number of items to evict at the beginning of the list.  Items are evicted when the list is
+     * bigger than the window and the beginning of the list is the part which is the farthest from the
+     * visible range.
+     *
+     * @param items the conversation items.
+     * @param firstVisible the index of the first visible item.
+     * @param lastVisible the index of the last visible item.
+     * @return the number of items to evict at the beginning of the list or 0.
+     */
+    int getOlderEviction(@NonNull List<Item> items, int firstVisible, int lastVisible) {
+
+        final int size = items.size();
+        if (size <= mWindowSize || firstVisible < size - 1 - lastVisible) {
+
+            return 0;
+        }
+
+        int cut = Math.min(size - mWindowSize, firstVisible - mWindowSize / 4);
+
+        // Never split the items which have the same timestamp: they could not be loaded again.
+        while (cut > 0 && items.get(cut - 1).getTimestamp() == items.get(cut).getTimestamp()) {
+            cut--;
+        }
+
+        return Math.max(cut, 0);
+    }
+
+    /**
+     * Get the index of the first item to evict at the end of the list.  Items are evicted when the list is
+     * bigger than the window and the end of the list is the part which is the farthest from the visible range.
+     *
+     * @param items the conversation items.
+     * @param firstVisible the index of the first visible item.
+     * @param lastVisible the index of the last visible item.
+     * @return the index of the first item to evict or the list size.
+     */
+    int getNewerEviction(@NonNull List<Item> items, int firstVisible, int lastVisible) {
+
+        final int size = items.size();
+        if (size <= mWindowSize || size - 1 - lastVisible <= firstVisible) {
+
+            return size;
+        }
+
+        int cut = Math.max(mWindowSize, lastVisible + 1 + mWindowSize / 4);
+        while (cut < size && items.get(cut - 1).getTimestamp() == items.get(cut).getTimestamp()) {
+            cut++;
+        }
+
+        return Math.min(cut, size);
+    }
+
+    /**
+     * Load the descriptors which precede the timestamp.
+     *
+     * @param conversation the conversation.
+     * @param callsMode the call descriptors to display.
+     * @param beforeTimestamp the descriptors must be strictly older than this timestamp.
+     * @return the page of descriptors.
+     */
+    @WorkerThread
+    @NonNull
+    Page loadOlder(@NonNull Conversation conversation, @NonNull DisplayCallsMode callsMode, long beforeTimestamp) {
+
+        final List<Descriptor> descriptors = mConversationService.getConversationDescriptors(conversation, callsMode,
+                beforeTimestamp, mPageSize);
+        if (descriptors == null) {
+
+            return new Page(Collections.emptyList(), true);
+        }
+
+        final List<Descriptor> result = new ArrayList<>(descriptors.size());
+        for (Descriptor descriptor : descriptors) {
+            if (mFilter.accept(descriptor)) {
+                result.add(descriptor);
+            }
+        }
+
+        return new Page(result, descriptors.size() < mPageSize);
+    }
+
+    /**
+     * Load the descriptors which follow the timestamp.  The time range after the timestamp is probed until it
+     * contains less than a page of descriptors and at least one descriptor: the range is extended while it is
+     * empty and reduced while it is overfull, and once both an empty and an overfull range are known the next
+     * range is searched between them by bisection.  When the smallest overfull range cannot be reduced, it is
+     * loaded completely and its oldest descriptors are returned so that no descriptor is skipped.
+     *
+     * @param conversation the conversation.
+     * @param callsMode the call descriptors to display.
+     * @param afterTimestamp the descriptors must be strictly newer than this timestamp.
+     * @param timeSpan the initial time range to probe or 0 to use a default range.
+     * @return the page of descriptors.
+     */
+    @WorkerThread
+    @NonNull
+    Page loadNewer(@NonNull Conversation conversation, @NonNull DisplayCallsMode callsMode, long afterTimestamp, long timeSpan) {
+
+        long span = timeSpan > 0 ? timeSpan : DEFAULT_PROBE_TIME_SPAN;
+
+        // The largest range known to be empty and the smallest range known to be overfull (0 when not known).
+        long emptySpan = 0;
+        long overfullSpan = 0;
+        boolean overfullLast = false;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            final boolean last = afterTimestamp + span >= System.currentTimeMillis();
+            final long beforeTimestamp = last ? Long.MAX_VALUE : afterTimestamp + span;
+            final List<Descriptor> descriptors = mConversationService.getConversationDescriptors(conversation, callsMode,
+                    beforeTimestamp, mPageSize);
+            if (descriptors == null) {
+
+                return new Page(Collections.emptyList(), true);
+            }
+
+            if (!isComplete(descriptors, afterTimestamp, mPageSize)) {
+                overfullSpan = span;
+                overfullLast = last;
+                if (span - emptySpan <= MIN_PROBE_TIME_SPAN) {
+                    // The range cannot be reduced: the descriptors have almost the same timestamp.
+                    break;
+                }
+
+                span = emptySpan > 0 ? emptySpan + (overfullSpan - emptySpan) / 2 : Math.max(span / 4, MIN_PROBE_TIME_SPAN);
+            } else {
+                final List<Descriptor> result = filter(descriptors, afterTimestamp);
+                if (!result.isEmpty() || last) {
+
+                    return new Page(result, last);
+                }
+
+                emptySpan = span;
+                span = overfullSpan > 0 ? emptySpan + (overfullSpan - emptySpan) / 2 : span * 4;
+                if (overfullSpan > 0 && span == emptySpan) {
+                    // The overfull range is next to the empty range.
+                    span = overfullSpan;
+                }
+            }
+        }
+
+        if (overfullSpan == 0) {
+
+            return new Page(Collections.emptyList(), false);
+        }
+
+        // Load the smallest overfull range completely: the database only gives the newest descriptors of a range.
+        final long beforeTimestamp = overfullLast ? Long.MAX_VALUE : afterTimestamp + overfullSpan;
+        int count = 2 * mPageSize;
+        List<Descriptor> descriptors;
+        while (true) {
+            descriptors = mConversationService.getConversationDescriptors(conversation, callsMode, beforeTimestamp, count);
+            if (descriptors == null) {
+
+                return new Page(Collections.emptyList(), true);
+            }
+            if (isComplete(descriptors, afterTimestamp, count)) {
+                break;
+            }
+            count *= 2;
+        }
+
+        final List<Descriptor> result = filter(descriptors, afterTimestamp);
+        if (result.isEmpty()) {
+            // The range only contains filtered descriptors: continue after it.
+
+            return overfullLast ? new Page(result, true) : loadNewer(conversation, callsMode, beforeTimestamp - 1, overfullSpan);
+        }
+
+        // Keep the oldest descriptors and those which have the same timestamp as the last one kept: the next
+        // page is loaded after that timestamp.
+        Collections.sort(result, (d1, d2) -> Long.compare(d1.getCreatedTimestamp(), d2.getCreatedTimestamp()));
+        int size = Math.min(mPageSize, result.size());
+        final long lastTimestamp = result.get(size - 1).getCreatedTimestamp();
+        while (size < result.size() && result.get(size).getCreatedTimestamp() == lastTimestamp) {
+            size++;
+        }
+
+        return new Page(new ArrayList<>(result.subList(0, size)), overfullLast && size == result.size());
+    }
+
+    /**
+     * Get the time range covered by the items to estimate the time range of the next page.
+     */
+    long getTimeSpan(@Nullable Item first, @Nullable Item last, int count) {
+
+        if (first == null || last == null || count <= 0) {
+
+            return 0;
+        }
+
+        return Math.max((last.getTimestamp() - first.getTimestamp()) * mPageSize / count, MIN_PROBE_TIME_SPAN);
+    }
+
+    //
+    // Private methods
+    //
+
+    /**
+     * Check if the descriptors loaded before a timestamp contain all the descriptors which follow afterTimestamp:
+     * the query returned less than the requested count or a descriptor which is not after afterTimestamp.
+     */
+    private static boolean isComplete(@NonNull List<Descriptor> descriptors, long afterTimestamp, int count) {
+
+        if (descriptors.size() < count) {
+
+            return true;
+        }
+
+        for (Descriptor descriptor : descriptors) {
+            if (descriptor.getCreatedTimestamp() <= afterTimestamp) {
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @NonNull
+    private List<Descriptor> filter(@NonNull List<Descriptor> descriptors, long afterTimestamp) {
+
+        final List<Descriptor> result = new ArrayList<>(descriptors.size());
+        for (Descriptor descriptor : descriptors) {
+            if (descriptor.getCreatedTimestamp() > afterTimestamp && mFilter.accept(descriptor)) {
+                result.add(descriptor);
+            }
+        }
+
+        return result;
+    }
+}
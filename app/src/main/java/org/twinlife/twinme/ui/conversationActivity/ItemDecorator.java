@@ -0,0 +1,285 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.conversationActivity;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.twinlife.twinme.ui.baseItemActivity.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compute the grouping decoration of conversation items: bubble corners, avatar visibility and the
+ * time and name separators which are displayed before an item.
+ *
+ * The decorator works on a snapshot of the items (see Entry) and never modifies them: it can be executed
+ * from any thread and the decorations are applied by the caller on the UI thread.  The decoration is
+ * computed on a window of consecutive items that can be surrounded by the item which precedes the window
+ * and the item which follows it.  These two context items are only partially decorated: the bottom
+ * corners and avatar for the previous item and the top corners with the separators for the next item.
+ */
+final class ItemDecorator {
+
+    static final int TOP_CORNERS = Item.TOP_LEFT | Item.TOP_RIGHT | Item.TOP_LARGE_MARGIN;
+    static final int BOTTOM_CORNERS = Item.BOTTOM_LEFT | Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN;
+    static final int ALL_CORNERS = TOP_CORNERS | BOTTOM_CORNERS;
+
+    /**
+     * Snapshot of the item information used to compute the decoration.
+     */
+    static final class Entry {
+        @NonNull
+        final Item item;
+        @NonNull
+        final Item.ItemType type;
+        final long timestamp;
+        @Nullable
+        final UUID peerTwincodeOutboundId;
+
+        Entry(@NonNull Item item) {
+
+            this.item = item;
+            this.type = item.getType();
+            this.timestamp = item.getTimestamp();
+            this.peerTwincodeOutboundId = item.getPeerTwincodeOutboundId();
+        }
+
+        boolean isSamePeer(@NonNull Entry entry) {
+
+            return peerTwincodeOutboundId == null ? entry.peerTwincodeOutboundId == null : peerTwincodeOutboundId.equals(entry.peerTwincodeOutboundId);
+        }
+    }
+
+    /**
+     * Decoration computed for an item.
+     */
+    static final class Decoration {
+        @NonNull
+        final Item item;
+        // The corner bits that must be updated.
+        final int cornersMask;
+        int corners;
+        final boolean updateAvatar;
+        boolean visibleAvatar;
+        // The separators are only computed when updateSeparators is set.
+        final boolean updateSeparators;
+        boolean time;
+        @Nullable
+        String name;
+
+        Decoration(@NonNull Item item, int cornersMask, boolean updateAvatar, boolean updateSeparators) {
+
+            this.item = item;
+            this.cornersMask = cornersMask;
+            this.corners = ALL_CORNERS;
+            this.updateAvatar = updateAvatar;
+            this.updateSeparators = updateSeparators;
+        }
+
+        /**
+         * Apply the decoration on the item.  Must be called from the UI thread.
+         *
+         * @return true if the item was changed.
+         */
+        boolean apply() {
+
+            final int oldCorners = item.getCorners();
+            final boolean oldVisibleAvatar = item.getVisibleAvatar();
+            item.cornersBitwiseAnd(~cornersMask);
+            item.cornersBitwiseOr(corners & cornersMask);
+            if (updateAvatar) {
+                item.setVisibleAvatar(visibleAvatar);
+            }
+
+            return oldCorners != item.getCorners() || oldVisibleAvatar != item.getVisibleAvatar();
+        }
+    }
+
+    @NonNull
+    private final Map<UUID, String> mMemberNames;
+
+    /**
+     * Create the decorator.
+     *
+     * @param memberNames the group member names indexed by their twincode outbound id (a copy that is not modified).
+     */
+    ItemDecorator(@NonNull Map<UUID, String> memberNames) {
+
+        mMemberNames = memberNames;
+    }
+
+    /**
+     * Compute the decoration of a window of items.
+     *
+     * @param previous the item which precedes the window or null if the window starts the conversation.
+     * @param entries the window of items in the display order.
+     * @param next the item which follows the window or null if the window ends the conversation.
+     * @param lastTimeTimestamp the timestamp of the last time separator before the window or -1.
+     * @return the decorations of the previous item (when defined), the window items and the next item (when defined).
+     */
+    @NonNull
+    List<Decoration> decorate(@Nullable Entry previous, @NonNull List<Entry> entries, @Nullable Entry next, long lastTimeTimestamp) {
+
+        final List<Decoration> result = new ArrayList<>(entries.size() + 2);
+        Decoration previousDecoration = null;
+        if (previous != null) {
+            // Only the bottom part of the previous item depends on the window.
+            previousDecoration = new Decoration(previous.item, BOTTOM_CORNERS, isPeerItem(previous.type), false);
+            previousDecoration.visibleAvatar = true;
+            result.add(previousDecoration);
+        }
+
+        Entry previousEntry = previous;
+        for (Entry entry : entries) {
+            final Decoration decoration = new Decoration(entry.item, ALL_CORNERS, true, true);
+            decoration.visibleAvatar = isPeerItem(entry.type);
+            lastTimeTimestamp = decorate(previousEntry, previousDecoration, entry, decoration, lastTimeTimestamp);
+            result.add(decoration);
+            previousEntry = entry;
+            previousDecoration = decoration;
+        }
+
+        if (next != null) {
+            // The avatar of the next item depends on the item that follows it.
+            final Decoration decoration = new Decoration(next.item, TOP_CORNERS, false, true);
+            decorate(previousEntry, previousDecoration, next, decoration, lastTimeTimestamp);
+            result.add(decoration);
+        }
+
+        return result;
+    }
+
+    static boolean isLocalItem(@NonNull Item.ItemType type) {
+
+        switch (type) {
+            case MESSAGE:
+            case LINK:
+            case IMAGE:
+            case AUDIO:
+            case VIDEO:
+            case FILE:
+            case INVITATION:
+            case CALL:
+            case INVITATION_CONTACT:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    static boolean isPeerItem(@NonNull Item.ItemType type) {
+
+        switch (type) {
+            case PEER_MESSAGE:
+            case PEER_LINK:
+            case PEER_IMAGE:
+            case PEER_AUDIO:
+            case PEER_VIDEO:
+            case PEER_FILE:
+            case PEER_INVITATION:
+            case PEER_CALL:
+            case PEER_INVITATION_CONTACT:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    static boolean isSeparator(@NonNull Item.ItemType type) {
+
+        return type == Item.ItemType.TIME || type == Item.ItemType.NAME;
+    }
+
+    //
+    // Private methods
+    //
+
+    /**
+     * Decorate the item according to its previous item.  Only the bottom corners and avatar of the previous item
+     * are changed and only the top corners and separators of the item are computed.
+     *
+     * @return the timestamp of the last time separator.
+     */
+    private long decorate(@Nullable Entry previous, @Nullable Decoration previousDecoration,
+                          @NonNull Entry entry, @NonNull Decoration decoration, long lastTimeTimestamp) {
+
+        if (previous == null) {
+            decoration.time = true;
+        } else if (lastTimeTimestamp >= 0) {
+            decoration.time = entry.timestamp - lastTimeTimestamp > ConversationActivity.MAX_DELTA_TIMESTAMP2;
+        } else {
+            decoration.time = entry.timestamp - previous.timestamp > ConversationActivity.MAX_DELTA_TIMESTAMP2;
+        }
+        if (decoration.time) {
+            lastTimeTimestamp = entry.timestamp;
+        }
+
+        if (isLocalItem(entry.type) || entry.type == Item.ItemType.CLEAR) {
+            if (previous == null || previousDecoration == null) {
+
+                return lastTimeTimestamp;
+            }
+            if (isLocalItem(previous.type)) {
+                if (entry.timestamp - previous.timestamp < ConversationActivity.MAX_DELTA_TIMESTAMP1) {
+                    previousDecoration.corners &= ~(Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN);
+                    decoration.corners &= ~(Item.TOP_RIGHT | Item.TOP_LARGE_MARGIN);
+                } else {
+                    previousDecoration.corners |= Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN;
+                }
+            } else if (isPeerItem(previous.type)) {
+                previousDecoration.corners |= Item.BOTTOM_LEFT | Item.BOTTOM_LARGE_MARGIN;
+                previousDecoration.visibleAvatar = true;
+                decoration.corners |= Item.TOP_RIGHT | Item.TOP_LARGE_MARGIN;
+            }
+
+            return lastTimeTimestamp;
+        }
+
+        if (!isPeerItem(entry.type)) {
+
+            return lastTimeTimestamp;
+        }
+
+        if (previous == null || !previous.isSamePeer(entry)) {
+            // For a group conversation, add the member's name before its item.
+            decoration.name = mMemberNames.get(entry.peerTwincodeOutboundId);
+            if (decoration.name != null) {
+                decoration.corners &= ~Item.TOP_LARGE_MARGIN;
+            }
+        }
+        if (previous == null || previousDecoration == null) {
+
+            return lastTimeTimestamp;
+        }
+
+        if (isLocalItem(previous.type)) {
+            previousDecoration.corners |= Item.BOTTOM_RIGHT | Item.BOTTOM_LARGE_MARGIN;
+            decoration.corners |= Item.TOP_LEFT | Item.TOP_LARGE_MARGIN;
+
+        } else if (isPeerItem(previous.type)) {
+            if (entry.isSamePeer(previous) && entry.timestamp - previous.timestamp < ConversationActivity.MAX_DELTA_TIMESTAMP1) {
+                previousDecoration.corners &= ~Item.BOTTOM_LEFT;
+                previousDecoration.visibleAvatar = false;
+                decoration.corners &= ~Item.TOP_LEFT;
+            } else {
+                previousDecoration.corners |= Item.BOTTOM_LEFT;
+                previousDecoration.visibleAvatar = true;
+            }
+            if (entry.isSamePeer(previous)) {
+                previousDecoration.corners &= ~Item.BOTTOM_LARGE_MARGIN;
+            }
+            decoration.corners &= ~Item.TOP_LARGE_MARGIN;
+        }
+
+        return lastTimeTimestamp;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.conversationActivity;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+
+import org.twinlife.twinlife.ConversationService.FileDescriptor;
+import org.twinlife.twinme.TwinmeContext;
+import org.twinlife.twinme.ui.baseItemActivity.ImageItem;
+import org.twinlife.twinme.ui.baseItemActivity.Item;
+import org.twinlife.twinme.ui.baseItemActivity.ItemThumbnail;
+import org.twinlife.twinme.ui.baseItemActivity.ItemTimeline;
+import org.twinlife.twinme.ui.baseItemActivity.MessageTextCache;
+import org.twinlife.twinme.ui.baseItemActivity.PeerImageItem;
+import org.twinlife.twinme.ui.baseItemActivity.PeerVideoItem;
+import org.twinlife.twinme.ui.baseItemActivity.VideoItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prepare the data of the items which are about to be displayed while the list is scrolled.
+ *
+ * The RecyclerView item cache only keeps views which were already bound.  The prefetcher looks at the scroll
+ * direction and prepares the next items before they are bound: the message texts are formatted on a background
+ * thread and the image and video thumbnails are loaded by Glide with the same request as the item views.
+ */
+final class ItemPrefetcher extends RecyclerView.OnScrollListener {
+    private static final String LOG_TAG = "ItemPrefetcher";
+    private static final boolean DEBUG = false;
+
+    @NonNull
+    private final TwinmeContext mTwinmeContext;
+    @NonNull
+    private final RequestManager mRequestManager;
+    @NonNull
+    private final LinearLayoutManager mLayoutManager;
+    @NonNull
+    private final ItemTimeline mItems;
+    private final int mPrefetchCount;
+    private final int mThumbnailWidth;
+
+    // The range of items already prefetched for the list version.
+    private int mVersion = -1;
+    private int mFirstPrefetched = -1;
+    private int mLastPrefetched = -1;
+
+    /**
+     * Create the prefetcher.
+     *
+     * @param twinmeContext the twinme context used to execute the background tasks.
+     * @param recyclerView the recycler view to observe.
+     * @param layoutManager the layout manager of the recycler view.
+     * @param items the items displayed by the recycler view.
+     * @param prefetchCount the number of items to prepare ahead of the visible range.
+     */
+    ItemPrefetcher(@NonNull TwinmeContext twinmeContext, @NonNull RecyclerView recyclerView,
+                   @NonNull LinearLayoutManager layoutManager, @NonNull ItemTimeline items, int prefetchCount) {
+
+        mTwinmeContext = twinmeContext;
+        mRequestManager = Glide.with(recyclerView);
+        mLayoutManager = layoutManager;
+        mItems = items;
+        mPrefetchCount = prefetchCount;
+        mThumbnailWidth = ItemThumbnail.getItemWidth();
+    }
+
+    //
+    // Override RecyclerView.OnScrollListener methods
+    //
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+
+        if (dy == 0) {
+            return;
+        }
+
+        // Adapter positions are shifted by the header item.
+        final int firstVisible = mLayoutManager.findFirstVisibleItemPosition() - 1;
+        final int lastVisible = mLayoutManager.findLastVisibleItemPosition() - 1;
+        if (firstVisible < -1 || lastVisible < 0) {
+            return;
+        }
+
+        if (mVersion != mItems.getVersion()) {
+            mVersion = mItems.getVersion();
+            mFirstPrefetched = firstVisible;
+            mLastPrefetched = lastVisible;
+        }
+
+        final int size = mItems.size();
+        final List<Item> items = new ArrayList<>();
+        if (dy > 0) {
+            final int last = Math.min(lastVisible + mPrefetchCount, size - 1);
+            for (int index = Math.max(lastVisible, mLastPrefetched) + 1; index <= last; index++) {
+                items.add(mItems.get(index));
+            }
+            mLastPrefetched = Math.max(mLastPrefetched, last);
+        } else {
+            final int first = Math.max(firstVisible - mPrefetchCount, 0);
+            for (int index = Math.min(firstVisible, mFirstPrefetched) - 1; index >= first; index--) {
+                items.add(mItems.get(index));
+            }
+            mFirstPrefetched = Math.min(mFirstPrefetched, first);
+        }
+
+        if (!items.isEmpty()) {
+            prefetch(items);
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    private void prefetch(@NonNull List<Item> items) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "prefetch: items=" + items.size());
+        }
+
+        boolean hasText = false;
+        for (Item item : items) {
+            final FileDescriptor fileDescriptor = getThumbnailDescriptor(item);
+            if (fileDescriptor != null) {
+                ItemThumbnail.request(mRequestManager, fileDescriptor, mThumbnailWidth).preload();
+            } else {
+                hasText |= item.getType() == Item.ItemType.MESSAGE || item.getType() == Item.ItemType.PEER_MESSAGE;
+            }
+        }
+
+        if (hasText) {
+            mTwinmeContext.execute(() -> {
+                for (Item item : items) {
+                    MessageTextCache.prepare(item);
+                }
+            });
+        }
+    }
+
+    @Nullable
+    private static FileDescriptor getThumbnailDescriptor(@NonNull Item item) {
+
+        switch (item.getType()) {
+            case IMAGE:
+                return ((ImageItem) item).getImageDescriptor();
+
+            case PEER_IMAGE:
+                return ((PeerImageItem) item).getImageDescriptor();
+
+            case VIDEO:
+                return ((VideoItem) item).getVideoDescriptor();
+
+            case PEER_VIDEO:
+                return ((PeerVideoItem) item).getVideoDescriptor();
+
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.conversationActivity;
+
+import androidx.annotation.NonNull;
+
+import org.twinlife.twinme.ui.baseItemActivity.Item;
+import org.twinlife.twinme.ui.baseItemActivity.MessageTextCache;
+import org.twinlife.twinme.ui.baseItemActivity.NameItem;
+import org.twinlife.twinme.ui.baseItemActivity.TimeItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Build the list of conversation items for a page of descriptors in a single sweep.
+ *
+ * The builder sorts the page and takes a snapshot of the items on the UI thread.  It then decorates the
+ * snapshot with the ItemDecorator, prepares the message texts and inserts the TimeItem and NameItem separators
+ * from a background thread.  The decorations are applied on the page items by the UI thread before they are
+ * inserted, so the background thread never modifies an item.  The junction between the page and the items
+ * already displayed is decorated afterwards by the ConversationActivity decoration pass.
+ */
+final class ItemTimelineBuilder {
+
+    @NonNull
+    private final ItemDecorator mDecorator;
+    @NonNull
+    private final List<ItemDecorator.Entry> mEntries;
+    @NonNull
+    private List<ItemDecorator.Decoration> mDecorations = Collections.emptyList();
+
+    /**
+     * Create the builder for a page.  Must be called from the UI thread.
+     *
+     * @param decorator the decorator.
+     * @param page the page items (only items associated with a descriptor).
+     */
+    ItemTimelineBuilder(@NonNull ItemDecorator decorator, @NonNull List<Item> page) {
+
+        mDecorator = decorator;
+        Collections.sort(page);
+        mEntries = new ArrayList<>(page.size());
+        for (Item item : page) {
+            mEntries.add(new ItemDecorator.Entry(item));
+        }
+    }
+
+    /**
+     * Compute the decorations of the page and build the list.  Can be called from a background thread.
+     *
+     * @return the items to display with the time and name separators.
+     */
+    @NonNull
+    List<Item> build() {
+
+        final List<Item> result = new ArrayList<>(mEntries.size() + mEntries.size() / 2);
+        mDecorations = mDecorator.decorate(null, mEntries, null, -1);
+        for (ItemDecorator.Decoration decoration : mDecorations) {
+            // Format the message text now so that the view holders have no regex to run.
+            MessageTextCache.prepare(decoration.item);
+
+            if (decoration.time) {
+                result.add(new TimeItem(decoration.item.getTimestamp()));
+            }
+            if (decoration.name != null) {
+                result.add(new NameItem(decoration.item.getTimestamp(), decoration.name));
+            }
+            result.add(decoration.item);
+        }
+
+        return result;
+    }
+
+    /**
+     * Apply the decorations computed by build() on the page items.  Must be called from the UI thread before
+     * the items are inserted.
+     */
+    void apply() {
+
+        for (ItemDecorator.Decoration decoration : mDecorations) {
+            decoration.apply();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.conversationActivity;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import org.twinlife.twinlife.ConversationService.DescriptorId;
+import org.twinlife.twinme.TwinmeContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Coalesce the requests to mark the peer descriptors as read.
+ *
+ * A peer item asks to be marked as read each time it is bound and until the conversation service reports the
+ * new read timestamp: when a conversation with many unread messages is opened or scrolled, the same descriptor
+ * is requested several times.  The read marker collects the descriptor ids during a short delay, drops the
+ * duplicates and the descriptors for which a request was already made, and flushes them in one batch.
+ * A requested descriptor is forgotten when it is reported as read, when an error is reported, when the activity
+ * is paused, or after REQUEST_TIMEOUT so that a request which failed silently is made again.
+ * This class must be used from the UI thread.
+ */
+final class ReadMarker {
+    private static final String LOG_TAG = "ReadMarker";
+    private static final boolean DEBUG = false;
+
+    private static final long FLUSH_DELAY = 300;
+    private static final long REQUEST_TIMEOUT = 10000;
+
+    @NonNull
+    private final TwinmeContext.Consumer<DescriptorId> mConsumer;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Set<DescriptorId> mPending = new LinkedHashSet<>();
+    // The descriptors being marked as read with the time of the request.
+    private final Map<DescriptorId, Long> mRequested = new HashMap<>();
+    private final Runnable mFlush = this::flush;
+
+    /**
+     * Create the read marker.
+     *
+     * @param consumer the consumer which marks a descriptor as read.
+     */
+    ReadMarker(@NonNull TwinmeContext.Consumer<DescriptorId> consumer) {
+
+        mConsumer = consumer;
+    }
+
+    /**
+     * Schedule the descriptor to be marked as read.
+     *
+     * @param descriptorId the descriptor id.
+     */
+    void mark(@NonNull DescriptorId descriptorId) {
+
+        final Long requestTime = mRequested.get(descriptorId);
+        if (requestTime != null) {
+            if (SystemClock.elapsedRealtime() - requestTime < REQUEST_TIMEOUT) {
+                return;
+            }
+            mRequested.remove(descriptorId);
+        }
+
+        if (!mPending.add(descriptorId)) {
+            return;
+        }
+
+        if (mPending.size() == 1) {
+            mHandler.postDelayed(mFlush, FLUSH_DELAY);
+        }
+    }
+
+    /**
+     * The descriptor was marked as read: it can be requested again if it is updated later.
+     *
+     * @param descriptorId the descriptor id.
+     */
+    void onMarked(@NonNull DescriptorId descriptorId) {
+
+        mRequested.remove(descriptorId);
+    }
+
+    /**
+     * Mark the pending descriptors as read now.
+     */
+    void flush() {
+
+        mHandler.removeCallbacks(mFlush);
+        if (mPending.isEmpty()) {
+            return;
+        }
+
+        if (DEBUG) {
+            Log.d(LOG_TAG, "flush: " + mPending.size() + " descriptors");
+        }
+
+        final List<DescriptorId> descriptorIds = new ArrayList<>(mPending);
+        mPending.clear();
+        final long now = SystemClock.elapsedRealtime();
+        for (DescriptorId descriptorId : descriptorIds) {
+            mRequested.put(descriptorId, now);
+            mConsumer.accept(descriptorId);
+        }
+    }
+
+    /**
+     * An operation failed: the failed request is not known and every requested descriptor can be requested again.
+     */
+    void onError() {
+
+        mRequested.clear();
+    }
+
+    /**
+     * Mark the pending descriptors as read now and forget the requested descriptors: the requests which do not
+     * complete while the activity is paused are made again when the items are bound after it is resumed.
+     */
+    void pause() {
+
+        flush();
+        mRequested.clear();
+    }
+
+    /**
+     * Drop the pending and requested descriptors.
+     */
+    void clear() {
+
+        mHandler.removeCallbacks(mFlush);
+        mPending.clear();
+        mRequested.clear();
+    }
+}
@@ -40,6 +40,7 @@ import androidx.core.content.res.ResourcesCompat;
 import androidx.core.graphics.ColorUtils;
 import androidx.core.view.MenuProvider;
 import androidx.drawerlayout.widget.DrawerLayout;
+import androidx.lifecycle.Lifecycle;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -1123,7 +1124,7 @@ public class CallsFragment extends TabbarFragment implements CallsService.Observ
                 return false;
             }
 
-        }, getViewLifecycleOwner());
+        }, getViewLifecycleOwner(), Lifecycle.State.RESUMED);
     }
 
     public void updateFont() {
@@ -37,6 +37,7 @@ import androidx.core.content.res.ResourcesCompat;
 import androidx.core.graphics.ColorUtils;
 import androidx.core.view.MenuProvider;
 import androidx.drawerlayout.widget.DrawerLayout;
+import androidx.lifecycle.Lifecycle;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -56,6 +57,7 @@ import org.twinlife.twinme.ui.profiles.AddProfileActivity;
 import org.twinlife.twinme.ui.users.OnContactTouchListener;
 import org.twinlife.twinme.ui.users.UIContact;
 import org.twinlife.twinme.ui.users.UIContactListAdapter;
+import org.twinlife.twinme.utils.SearchDebouncer;
 import org.twinlife.twinme.utils.UIMenuSelectAction;
 
 import java.util.ArrayList;
@@ -86,6 +88,10 @@ public class ContactsFragment extends TabbarFragment implements OnContactTouchLi
 
     private boolean mOnGetContactDone = false;
     private String mLastSearch = "";
+    private final SearchDebouncer mSearch = new SearchDebouncer(this::findContactByName);
+    // The searched text for which no contact was found.
+    @Nullable
+    private String mEmptySearchText;
     private ContactsService mContactsService;
 
     @Nullable
@@ -138,6 +144,7 @@ public class ContactsFragment extends TabbarFragment implements OnContactTouchLi
             Log.d(LOG_TAG, "onDestroy");
         }
 
+        mSearch.cancel();
         mContactsService.dispose();
 
         if (mSearchView != null) {
@@ -206,7 +213,7 @@ public class ContactsFragment extends TabbarFragment implements OnContactTouchLi
 
                 @Override
                 public boolean onQueryTextChange(String newText) {
-                    findContactByName(newText);
+                    mSearch.setText(newText);
                     return false;
                 }
             };
@@ -241,7 +248,13 @@ public class ContactsFragment extends TabbarFragment implements OnContactTouchLi
             Log.d(LOG_TAG, "onGetContacts: contacts=" + contacts);
         }
 
+        // Ignore the result of a previous search.
+        if (!mSearch.isCurrentResult()) {
+            return;
+        }
+
         mOnGetContactDone = true;
+        mEmptySearchText = contacts.isEmpty() ? mSearch.getText() : null;
 
         mUIContactListAdapter.setContacts(contacts);
 
@@ -594,7 +607,7 @@ public class ContactsFragment extends TabbarFragment implements OnContactTouchLi
         }
     }
 
-    private void findContactByName(String text) {
+    private void findContactByName(@NonNull String text, boolean narrowing) {
         if (DEBUG) {
             Log.d(LOG_TAG, "findContactByName: " + text);
         }
@@ -608,7 +621,13 @@ public class ContactsFragment extends TabbarFragment implements OnContactTouchLi
             mNoResultFoundTitleView.setText(String.format(getString(R.string.conversations_fragment_no_result_found), text));
         }
 
+        // No contact can match a longer text when the previous search found nothing.
+        if (narrowing && mEmptySearchText != null && !mEmptySearchText.isEmpty() && text.startsWith(mEmptySearchText)) {
+            return;
+        }
+
         mContactsService.findContactsByName(text);
+        mSearch.expectResult();
     }
 
     private void addMenu() {
@@ -674,7 +693,7 @@ public class ContactsFragment extends TabbarFragment implements OnContactTouchLi
 
                         @Override
                         public boolean onQueryTextChange(String newText) {
-                            findContactByName(newText);
+                            mSearch.setText(newText);
                             return false;
                         }
                     };
@@ -697,7 +716,7 @@ public class ContactsFragment extends TabbarFragment implements OnContactTouchLi
                 return false;
             }
 
-        }, getViewLifecycleOwner());
+        }, getViewLifecycleOwner(), Lifecycle.State.RESUMED);
     }
 
     private void updateFont() {
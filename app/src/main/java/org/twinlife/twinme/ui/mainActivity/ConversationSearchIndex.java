@@ -0,0 +1,160 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.mainActivity;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Index on the names of the conversations displayed by the conversations fragment.
+ *
+ * The index is updated with the conversation list: the lower case name of a conversation is computed once when
+ * the conversation is inserted or updated and not each time the user types a character.  A query returns the
+ * conversations whose name contains the query, ranked with the names starting with it first, then the names
+ * having a word starting with it.  When a query extends the previous one and the index was not changed, only the
+ * previous results are filtered again.  This class is not thread safe and must be used from the UI thread.
+ */
+final class ConversationSearchIndex {
+
+    private static final int RANK_NAME_PREFIX = 0;
+    private static final int RANK_WORD_PREFIX = 1;
+    private static final int RANK_CONTAINS = 2;
+
+    private static final class Entry {
+        @NonNull
+        UIConversation uiConversation;
+        @NonNull
+        final String name;
+        int rank;
+
+        Entry(@NonNull UIConversation uiConversation, @NonNull String name) {
+
+            this.uiConversation = uiConversation;
+            this.name = name;
+        }
+    }
+
+    private final Map<UUID, Entry> mEntries = new HashMap<>();
+    private int mVersion = 0;
+
+    // The last query and its results to narrow the next query.
+    @Nullable
+    private String mLastQuery;
+    private int mLastVersion = -1;
+    @NonNull
+    private List<Entry> mLastResults = Collections.emptyList();
+
+    /**
+     * Add the conversation to the index or update its name.  The previous results are only invalidated when
+     * the name is changed so that a new message does not prevent narrowing the next query.
+     *
+     * @param uiConversation the conversation.
+     */
+    void put(@NonNull UIConversation uiConversation) {
+
+        final String name = normalize(uiConversation.getName());
+        final Entry entry = mEntries.get(uiConversation.getConversationId());
+        if (entry != null && entry.name.equals(name)) {
+            entry.uiConversation = uiConversation;
+            return;
+        }
+
+        mEntries.put(uiConversation.getConversationId(), new Entry(uiConversation, name));
+        mVersion++;
+    }
+
+    /**
+     * Remove the conversation from the index.
+     *
+     * @param conversationId the conversation id.
+     */
+    void remove(@NonNull UUID conversationId) {
+
+        if (mEntries.remove(conversationId) != null) {
+            mVersion++;
+        }
+    }
+
+    /**
+     * Remove all the conversations from the index.
+     */
+    void clear() {
+
+        mEntries.clear();
+        mVersion++;
+    }
+
+    /**
+     * Find the conversations whose name contains the query.
+     *
+     * @param query the text to search.
+     * @return the ranked list of conversations.
+     */
+    @NonNull
+    List<UIConversation> find(@NonNull String query) {
+
+        final String text = normalize(query);
+        final Collection<Entry> candidates;
+        if (mLastQuery != null && mLastVersion == mVersion && text.startsWith(mLastQuery)) {
+            candidates = mLastResults;
+        } else {
+            candidates = mEntries.values();
+        }
+
+        final List<Entry> results = new ArrayList<>();
+        for (Entry entry : candidates) {
+            final int index = entry.name.indexOf(text);
+            if (index == 0) {
+                entry.rank = RANK_NAME_PREFIX;
+            } else if (index > 0 && entry.name.indexOf(" " + text) >= 0) {
+                entry.rank = RANK_WORD_PREFIX;
+            } else if (index > 0) {
+                entry.rank = RANK_CONTAINS;
+            } else {
+                continue;
+            }
+            results.add(entry);
+        }
+
+        Collections.sort(results, (first, second) -> {
+            if (first.rank != second.rank) {
+                return Integer.compare(first.rank, second.rank);
+            }
+
+            return first.name.compareTo(second.name);
+        });
+
+        mLastQuery = text;
+        mLastVersion = mVersion;
+        mLastResults = results;
+
+        final List<UIConversation> conversations = new ArrayList<>(results.size());
+        for (Entry entry : results) {
+            conversations.add(entry.uiConversation);
+        }
+
+        return conversations;
+    }
+
+    //
+    // Private methods
+    //
+
+    @NonNull
+    private static String normalize(@Nullable String text) {
+
+        return text == null ? "" : text.toLowerCase(Locale.getDefault());
+    }
+}
@@ -24,6 +24,8 @@ import android.graphics.drawable.shapes.RoundRectShape;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Html;
 import android.text.Spanned;
 import android.util.DisplayMetrics;
@@ -51,6 +53,8 @@ import androidx.core.content.res.ResourcesCompat;
 import androidx.core.graphics.ColorUtils;
 import androidx.core.view.MenuProvider;
 import androidx.drawerlayout.widget.DrawerLayout;
+import androidx.lifecycle.Lifecycle;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -68,7 +72,6 @@ import org.twinlife.twinlife.DisplayCallsMode;
 import org.twinlife.twinme.models.Contact;
 import org.twinlife.twinme.models.Group;
 import org.twinlife.twinme.models.GroupMember;
-import org.twinlife.twinme.models.Originator;
 import org.twinlife.twinme.models.Profile;
 import org.twinlife.twinme.models.Space;
 import org.twinlife.twinme.services.ChatService;
@@ -91,6 +94,7 @@ import org.twinlife.twinme.ui.settingsActivity.QualityOfServiceActivity;
 import org.twinlife.twinme.ui.users.UIContact;
 import org.twinlife.twinme.utils.AbstractBottomSheetView;
 import org.twinlife.twinme.utils.CommonUtils;
+import org.twinlife.twinme.utils.SearchDebouncer;
 import org.twinlife.twinme.utils.SwipeItemTouchHelper;
 
 import java.util.ArrayList;
@@ -122,6 +126,21 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
     private static final float DESIGN_CELL_NAME_MARGIN = 16;
     private static final float DESIGN_TAB_HEIGHT = 150;
 
+    // Delay to collect the conversations whose last descriptor must be loaded again.
+    private static final long UPDATE_CONVERSATIONS_DELAY = 200;
+
+    // The last descriptors loaded for a batch of dirty conversations.
+    private static final class DirtyBatch {
+        final List<Pair<UIConversation, Descriptor>> results;
+        int pending;
+
+        DirtyBatch(int count) {
+
+            results = new ArrayList<>(count);
+            pending = count;
+        }
+    }
+
     private RecyclerView mUIConversationRecyclerView;
     private ImageView mNoConversationImageView;
     private TextView mNoConversationTextView;
@@ -146,21 +165,29 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
 
     private final Map<UUID, UIContact> mUIContacts = new HashMap<>();
     private final Map<UUID, UIContact> mUIGroups = new HashMap<>();
-    private final List<UIConversation> mUIConversations = new ArrayList<>();
-    private final ArrayList<UIConversation> mFilteredConversations = new ArrayList<>();
+    private final UIConversationList mUIConversations = new UIConversationList();
     private final Map<UUID, GroupMember> mGroupMembers = new HashMap<>();
     private final Map<UUID, UIGroupConversation> mMembersToGroupConversations = new HashMap<>();
     private final Map<UUID, UIConversation> mUIConversationsMap = new HashMap<>();
+    private final Map<UUID, Pair<Conversation, UIConversation>> mDirtyConversations = new HashMap<>();
+    private final Handler mUpdateHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mUpdateConversations = this::updateDirtyConversations;
+    // The batch of conversations whose last descriptors are being loaded or null.
+    @Nullable
+    private DirtyBatch mDirtyBatch;
+    private boolean mRefreshConversations = false;
 
     private final ArrayList<UIConversation> mSearchContacts = new ArrayList<>();
     private final ArrayList<UIGroupConversation> mSearchGroups = new ArrayList<>();
     private final ArrayList<UIConversation> mSearchConversations = new ArrayList<>();
+    private final Map<UUID, UIConversation> mSearchResults = new HashMap<>();
 
     private boolean mUIInitialized = false;
 
     private boolean mOnGetConversationsIsDone = false;
     private boolean mOnlyGroups;
     private String mLastSearch = "";
+    private final SearchDebouncer mSearch = new SearchDebouncer(this::searchMessage);
     private int mItemHeight = 0;
     private int mItemNameMargin = 0;
     private boolean mShowAllContacts = false;
@@ -200,7 +227,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
                 Log.d(LOG_TAG, "UIConversationListAdapter.getItemCount");
             }
 
-            return mFilteredConversations.size();
+            return mUIConversations.size();
         }
 
         @Override
@@ -209,7 +236,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
                 Log.d(LOG_TAG, "UIConversationListAdapter.getItemId: position=" + position);
             }
 
-            return mFilteredConversations.get(position).getItemId();
+            return mUIConversations.get(position).getItemId();
         }
 
         @Override
@@ -219,8 +246,8 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
             }
 
             if (mTwinmeActivity != null) {
-                boolean hideSeparator = position + 1 == mFilteredConversations.size();
-                viewHolder.onBind(mTwinmeActivity, mFilteredConversations.get(position), hideSeparator);
+                boolean hideSeparator = position + 1 == mUIConversations.size();
+                viewHolder.onBind(mTwinmeActivity, mUIConversations.get(position), hideSeparator);
             }
         }
 
@@ -313,7 +340,10 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
             mLastSearch = mMessagesSearchView.getQuery().toString();
             reloadSearchResult();
         } else {
+            // Refresh all the conversations to update the dates of the last messages.
+            updateConversations(false);
             notifyConversationListChanged();
+            restartDirtyConversations();
         }
 
         if (mConversationsRadioGroup != null) {
@@ -331,6 +361,11 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
 
         super.onDestroy();
 
+        mUpdateHandler.removeCallbacks(mUpdateConversations);
+        mDirtyConversations.clear();
+        mDirtyBatch = null;
+        mSearch.cancel();
+
         if (mTwinmeActivity != null) {
             mTwinmeActivity.setOnlyGroups(mOnlyGroups);
         }
@@ -453,9 +488,10 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
             }
             UIContact uiContact = new UIContact(mTwinmeActivity.getTwinmeApplication(), group, avatar);
 
-            for (UIConversation uiConversation : mUIConversations) {
+            for (UIConversation uiConversation : mUIConversations.getConversations()) {
                 if (uiConversation.getContact().isGroup() && uiConversation.getContact().getId() == group.getId()) {
                     uiConversation.setUIContact(uiContact);
+                    mUIConversations.update(uiConversation);
                     notifyConversationListChanged();
                     break;
                 }
@@ -473,10 +509,10 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
 
         mUIGroups.remove(groupId);
 
-        for (UIConversation uiConversation : mUIConversations) {
+        for (UIConversation uiConversation : mUIConversations.getConversations()) {
             if (uiConversation.getContact().getId() == groupId) {
                 uiConversation.resetUIConversation();
-                mUIConversations.remove(uiConversation);
+                mUIConversations.remove(uiConversation.getConversationId());
                 notifyConversationListChanged();
                 break;
             }
@@ -509,9 +545,10 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         }
         UIContact uiContact = new UIContact(mTwinmeActivity.getTwinmeApplication(), contact, avatar);
 
-        for (UIConversation uiConversation : mUIConversations) {
+        for (UIConversation uiConversation : mUIConversations.getConversations()) {
             if (uiConversation.getContact().getId() == contact.getId()) {
                 uiConversation.setUIContact(uiContact);
+                mUIConversations.update(uiConversation);
                 notifyConversationListChanged();
                 break;
             }
@@ -529,10 +566,10 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
 
         mUIContacts.remove(contactId);
 
-        for (UIConversation uiConversation : mUIConversations) {
+        for (UIConversation uiConversation : mUIConversations.getConversations()) {
             if (uiConversation.getContact().getId() == contactId) {
                 uiConversation.resetUIConversation();
-                mUIConversations.remove(uiConversation);
+                mUIConversations.remove(uiConversation.getConversationId());
                 notifyConversationListChanged();
                 break;
             }
@@ -580,8 +617,6 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
             mUIGroups.put(group.getId(), uiContact);
 
             onGetOrCreateConversation(conversation);
-
-            updateConversations(false);
         });
     }
 
@@ -600,12 +635,11 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         if (uiConversation instanceof UIGroupConversation) {
             // Refresh the UIGroupConversation object to display the new member.
             updateGroupConversation(conversation, (UIGroupConversation) uiConversation);
+            mUIConversations.update(uiConversation);
         } else {
             // Add the GroupConversation because we joined the group and it is now in the JOINED state and visible.
             onGetOrCreateConversation(conversation);
         }
-
-        updateConversations(false);
     }
 
     @Override
@@ -623,9 +657,8 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         if (uiConversation instanceof UIGroupConversation) {
             // Refresh the UIGroupConversation object to display the new member.
             updateGroupConversation(conversation, (UIGroupConversation) uiConversation);
+            mUIConversations.update(uiConversation);
         }
-
-        updateConversations(false);
     }
 
     @Override
@@ -641,29 +674,8 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         if (conversation != null) {
             mChatService.getGroupMemberImage(member, (Bitmap avatar) -> {
                 conversation.updateVisibleMembers(mGroupMembers, groupMemberTwincodeId, avatar);
-                int indexConversation = -1;
-                for (UIConversation lUIConversation : mUIConversations) {
-                    indexConversation++;
-                    if (lUIConversation.getConversationId().equals(conversation.getConversationId())) {
-                        break;
-                    }
-                }
-
-                if (indexConversation != -1) {
-                    mUIConversations.set(indexConversation, conversation);
-                }
-
-                indexConversation = -1;
-                for (int i = 0; i < mFilteredConversations.size(); i++) {
-                    UIConversation uiConversation = mFilteredConversations.get(i);
-                    if (uiConversation.getConversationId().equals(conversation.getConversationId())) {
-                        indexConversation = i;
-                        break;
-                    }
-                }
-
-                if (indexConversation != -1) {
-                    mUIConversationListAdapter.notifyItemChanged(indexConversation);
+                if (mUIConversations.contains(conversation.getConversationId())) {
+                    mUIConversations.update(conversation);
                 }
             });
         }
@@ -677,7 +689,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
 
         mOnGetConversationsIsDone = true;
 
-        mUIConversations.clear();
+        final List<UIConversation> uiConversations = new ArrayList<>();
 
         for (Map.Entry<Conversation, Descriptor> item : conversations.entrySet()) {
             final Conversation conversation = item.getKey();
@@ -700,11 +712,14 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
                         uiContact.setUIConversation(uiConversation);
                     }
                     uiConversation.setLastDescriptor(getContext(), lastDescriptor);
-                    updateUIConversation(uiConversation);
+                    uiConversations.add(uiConversation);
+                    mUIConversationsMap.put(uiConversation.getConversationId(), uiConversation);
                 }
             }
         }
 
+        // Sort the conversations once and refresh the whole list.
+        mUIConversations.setConversations(uiConversations);
         updateConversations(false);
         notifyConversationListChanged();
     }
@@ -715,35 +730,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
             Log.d(LOG_TAG, "onFindConversationsByName: conversations=" + conversations);
         }
 
-        for (Map.Entry<Conversation, Descriptor> item : conversations.entrySet()) {
-            Conversation conversation = item.getKey();
-            final Map<UUID, UIContact> contacts = conversation.isGroup() ? mUIGroups : mUIContacts;
-            UIContact uiContact = contacts.get(conversation.getContactId());
-            if (conversation.isActive() && uiContact != null) {
-                UIConversation uiConversation = new UIConversation(conversation.getId(), uiContact);
-                if (conversation.isGroup()) {
-                    ConversationService.GroupConversation group = (ConversationService.GroupConversation) conversation;
-                    UIGroupConversation uiGroupConversation = new UIGroupConversation(conversation.getId(), uiContact, group.getState());
-                    List<ConversationService.GroupMemberConversation> members = group.getGroupMembers(ConversationService.MemberFilter.JOINED_MEMBERS);
-                    uiGroupConversation.setGroupMemberCount(members.size());
-                    mSearchGroups.add(uiGroupConversation);
-                } else {
-                    mSearchContacts.add(uiConversation);
-                }
-            }
-        }
-
-        if (mSearchContacts.size() <= MIN_RESULTS_VISIBLE) {
-            mShowAllContacts = true;
-        }
-
-        if (mSearchGroups.size() <= MIN_RESULTS_VISIBLE) {
-            mShowAllGroups = true;
-        }
-
-        if (mMessagesSearchView != null) {
-            mChatService.searchDescriptorsByContent(mMessagesSearchView.getQuery().toString(), true);
-        }
+        // The conversations are searched by name in the local index and never requested to the service.
     }
 
     @Override
@@ -752,6 +739,11 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
             Log.d(LOG_TAG, "onSearchDescriptors: descriptors=" + descriptors);
         }
 
+        // Ignore the messages found for a previous search.
+        if (!mSearch.isCurrentResult()) {
+            return;
+        }
+
         for (Pair<Conversation, Descriptor> pair : descriptors) {
             Conversation conversation = pair.first;
             final Map<UUID, UIContact> contacts = conversation.isGroup() ? mUIGroups : mUIContacts;
@@ -776,6 +768,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
 
         if (!mChatService.isGetDescriptorsDone() && mMessagesSearchView != null && !mMessagesSearchView.getQuery().toString().isEmpty()) {
             mChatService.searchDescriptorsByContent(mMessagesSearchView.getQuery().toString(), false);
+            mSearch.expectResult();
         }
     }
 
@@ -824,9 +817,10 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         if (uiConversation != null) {
             if (conversation.isGroup()) {
                 uiConversation.setLastDescriptor(null, null);
+                mUIConversations.update(uiConversation);
             } else {
                 uiConversation.resetUIConversation();
-                mUIConversations.remove(uiConversation);
+                mUIConversations.remove(uiConversation.getConversationId());
             }
             notifyConversationListChanged();
         }
@@ -841,7 +835,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         UIConversation uiConversation = mUIConversationsMap.remove(conversationId);
         if (uiConversation != null) {
             uiConversation.resetUIConversation();
-            mUIConversations.remove(uiConversation);
+            mUIConversations.remove(conversationId);
 
             notifyConversationListChanged();
         }
@@ -902,8 +896,6 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
                 updateUIConversation(uiConversation);
                 if (mMessagesSearchView != null && mMessagesSearchView.getQuery().toString().isEmpty()) {
                     notifyConversationListChanged();
-                } else {
-                    updateConversations(false);
                 }
             }
         }
@@ -930,8 +922,6 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
                 updateUIConversation(uiConversation);
                 if (mMessagesSearchView != null && mMessagesSearchView.getQuery().toString().isEmpty()) {
                     notifyConversationListChanged();
-                } else {
-                    updateConversations(false);
                 }
             }
         }
@@ -952,15 +942,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
 
             Descriptor descriptor = uiConversation.getLastDescriptor();
             if (descriptor != null && descriptorIdSet.remove(descriptor.getDescriptorId())) {
-                mChatService.getLastDescriptor(conversation, (ErrorCode errorCode, Descriptor lastDescriptor) -> {
-                    uiConversation.setLastDescriptor(getContext(), lastDescriptor);
-                    updateUIConversation(uiConversation);
-                    if (mMessagesSearchView != null && mMessagesSearchView.getQuery().toString().isEmpty()) {
-                        notifyConversationListChanged();
-                    } else {
-                        updateConversations(false);
-                    }
-                });
+                markConversationDirty(conversation, uiConversation, true);
             }
         }
     }
@@ -1081,12 +1063,12 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         });
 
         OnConversationClickListener onConversationClickListener = position -> {
-            UIConversation uiConversation = mFilteredConversations.get(position);
+            UIConversation uiConversation = mUIConversations.get(position);
             onUIConversationClick(uiConversation, false);
         };
 
         OnConversationLongClickListener onConversationLongClickListener = position -> {
-            UIConversation uiConversation = mFilteredConversations.get(position);
+            UIConversation uiConversation = mUIConversations.get(position);
             onUIConversationLongPress(uiConversation);
         };
 
@@ -1100,6 +1082,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         mUIConversationRecyclerView = view.findViewById(R.id.conversations_fragment_list_view);
         mUIConversationRecyclerView.setLayoutManager(uiConversationLinearLayoutManager);
         mUIConversationRecyclerView.setAdapter(mUIConversationListAdapter);
+        mUIConversations.setCallback(new AdapterListUpdateCallback(mUIConversationListAdapter));
         mUIConversationRecyclerView.setItemViewCacheSize(Design.ITEM_LIST_CACHE_SIZE);
         mUIConversationRecyclerView.setItemAnimator(null);
 
@@ -1113,7 +1096,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
             @Override
             public void onRightActionClick(int adapterPosition) {
 
-                onUIConversationResetClick(mFilteredConversations.get(adapterPosition));
+                onUIConversationResetClick(mUIConversations.get(adapterPosition));
             }
 
             @Override
@@ -1388,7 +1371,9 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         }
 
         if (mUIInitialized && mTwinmeActivity != null) {
-            updateConversations(false);
+            if (mMessagesSearchView != null && mMessagesSearchView.getQuery().toString().isEmpty()) {
+                updateRestrictionView();
+            }
 
             boolean darkMode = false;
             final Resources resources = mTwinmeActivity.getResources();
@@ -1474,12 +1459,57 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         mShowAllGroups = false;
 
         if (!content.isEmpty()) {
-            mChatService.findConversationsByName(content);
+            // Names are searched in the local index, the messages are searched by the service.
+            for (UIConversation uiConversation : mUIConversations.findByName(content)) {
+                final UIConversation searchResult = getSearchResult(uiConversation);
+                if (searchResult instanceof UIGroupConversation) {
+                    mSearchGroups.add((UIGroupConversation) searchResult);
+                } else {
+                    mSearchContacts.add(searchResult);
+                }
+            }
+
+            if (mSearchContacts.size() <= MIN_RESULTS_VISIBLE) {
+                mShowAllContacts = true;
+            }
+
+            if (mSearchGroups.size() <= MIN_RESULTS_VISIBLE) {
+                mShowAllGroups = true;
+            }
+
+            reloadSearchResult();
+            mChatService.searchDescriptorsByContent(content, true);
+            mSearch.expectResult();
         } else {
             reloadSearchResult();
         }
     }
 
+    /**
+     * Get the search result displaying the conversation.  The search result does not carry the last descriptor
+     * of the conversation and it is kept while the contact of the conversation is not changed.
+     */
+    @NonNull
+    private UIConversation getSearchResult(@NonNull UIConversation uiConversation) {
+
+        UIConversation searchResult = mSearchResults.get(uiConversation.getConversationId());
+        if (searchResult == null || searchResult.getUIContact() != uiConversation.getUIContact()) {
+            if (uiConversation instanceof UIGroupConversation) {
+                searchResult = new UIGroupConversation(uiConversation.getConversationId(), uiConversation.getUIContact(),
+                        ((UIGroupConversation) uiConversation).getGroupConversationState());
+            } else {
+                searchResult = new UIConversation(uiConversation.getConversationId(), uiConversation.getUIContact());
+            }
+            mSearchResults.put(uiConversation.getConversationId(), searchResult);
+        }
+
+        if (searchResult instanceof UIGroupConversation) {
+            ((UIGroupConversation) searchResult).setGroupMemberCount(((UIGroupConversation) uiConversation).getGroupMemberCount());
+        }
+
+        return searchResult;
+    }
+
     private void reloadSearchResult() {
         if (DEBUG) {
             Log.d(LOG_TAG, "reloadSearchResult");
@@ -1554,50 +1584,101 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
                 uiContact.setUIConversation(uiConversation);
             }
 
-            final UIConversation lUIConversation = uiConversation;
-            mChatService.getLastDescriptor(conversation, (ErrorCode errorCode, Descriptor lastDescriptor) -> {
-                lUIConversation.setLastDescriptor(getContext(), lastDescriptor);
-                updateUIConversation(lUIConversation);
+            markConversationDirty(conversation, uiConversation, refreshConversations);
+        }
+    }
 
-                if (refreshConversations) {
-                    notifyConversationListChanged();
+    /**
+     * Record that the last descriptor of the conversation must be loaded again.  The conversations are collected
+     * during a short delay so that a synchronization which updates many conversations is applied to the list
+     * at once, and a conversation updated several times is loaded only once.
+     */
+    private void markConversationDirty(@NonNull Conversation conversation, @NonNull UIConversation uiConversation, boolean refreshConversations) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "markConversationDirty: conversation=" + conversation);
+        }
+
+        mRefreshConversations |= refreshConversations;
+        final boolean schedule = mDirtyConversations.isEmpty() && mDirtyBatch == null;
+        mDirtyConversations.put(conversation.getId(), new Pair<>(conversation, uiConversation));
+        if (schedule) {
+            mUpdateHandler.postDelayed(mUpdateConversations, UPDATE_CONVERSATIONS_DELAY);
+        }
+    }
+
+    private void updateDirtyConversations() {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "updateDirtyConversations: count=" + mDirtyConversations.size());
+        }
+
+        if (mDirtyConversations.isEmpty()) {
+            return;
+        }
+
+        final List<Pair<Conversation, UIConversation>> conversations = new ArrayList<>(mDirtyConversations.values());
+        final DirtyBatch batch = new DirtyBatch(conversations.size());
+        mDirtyConversations.clear();
+        mDirtyBatch = batch;
+        for (Pair<Conversation, UIConversation> pair : conversations) {
+            mChatService.getLastDescriptor(pair.first, (ErrorCode errorCode, Descriptor lastDescriptor) -> {
+                // The batch was abandoned by a full refresh or the fragment was destroyed.
+                if (batch != mDirtyBatch) {
+                    return;
+                }
+
+                batch.results.add(new Pair<>(pair.second, lastDescriptor));
+                batch.pending--;
+                if (batch.pending == 0) {
+                    mDirtyBatch = null;
+                    onUpdateDirtyConversations(batch.results);
                 }
             });
         }
     }
 
-    private void updateUIConversation(UIConversation uiConversation) {
+    /**
+     * Abandon the batch in progress, whose results may never arrive, and load the dirty conversations again.
+     */
+    private void restartDirtyConversations() {
         if (DEBUG) {
-            Log.d(LOG_TAG, "updateUIConversation: uiConversation=" + uiConversation);
+            Log.d(LOG_TAG, "restartDirtyConversations");
         }
 
-        UIConversation lUIConversation = mUIConversationsMap.get(uiConversation.getConversationId());
-        if (lUIConversation != null) {
-            mUIConversations.remove(lUIConversation);
+        mDirtyBatch = null;
+        mUpdateHandler.removeCallbacks(mUpdateConversations);
+        if (!mDirtyConversations.isEmpty()) {
+            mUpdateHandler.postDelayed(mUpdateConversations, UPDATE_CONVERSATIONS_DELAY);
         }
+    }
 
-        boolean added = false;
-        int size = mUIConversations.size();
+    private void onUpdateDirtyConversations(@NonNull List<Pair<UIConversation, Descriptor>> results) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "onUpdateDirtyConversations: count=" + results.size());
+        }
 
-        // Put the conversation at the top if it has the highest usage score.
-        long lastMessageDate = uiConversation.getLastMessageDate();
-        double score = uiConversation.getUsageScore();
+        for (Pair<UIConversation, Descriptor> result : results) {
+            result.first.setLastDescriptor(getContext(), result.second);
+            updateUIConversation(result.first);
+        }
 
-        // Put the conversation according to the highest access time.
-        for (int i = 0; i < size; i++) {
-            UIConversation c = mUIConversations.get(i);
-            if (lastMessageDate > c.getLastMessageDate()
-                    || (lastMessageDate == 0 && c.getLastMessageDate() == 0 && score > c.getUsageScore())
-                    || (lastMessageDate == 0 && c.getLastMessageDate() == 0 && score == c.getUsageScore() && mUIConversations.get(i).getName().compareToIgnoreCase(uiConversation.getName()) > 0)) {
-                mUIConversations.add(i, uiConversation);
-                added = true;
-                break;
-            }
+        if (mRefreshConversations && (mMessagesSearchView == null || mMessagesSearchView.getQuery().toString().isEmpty())) {
+            mRefreshConversations = false;
+            notifyConversationListChanged();
         }
 
-        if (!added) {
-            mUIConversations.add(uiConversation);
+        // Conversations marked while the last descriptors were loaded.
+        if (!mDirtyConversations.isEmpty()) {
+            mUpdateHandler.postDelayed(mUpdateConversations, UPDATE_CONVERSATIONS_DELAY);
+        }
+    }
+
+    private void updateUIConversation(UIConversation uiConversation) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "updateUIConversation: uiConversation=" + uiConversation);
         }
+
+        // Insert or move the conversation according to the last message date.
+        mUIConversations.update(uiConversation);
         mUIConversationsMap.put(uiConversation.getConversationId(), uiConversation);
     }
 
@@ -1716,21 +1797,13 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
             return;
         }
 
-        mFilteredConversations.clear();
-
-        for (UIConversation uiConversation : mUIConversations) {
-            Originator originator = uiConversation.getContact();
-
-            if (!mOnlyGroups || originator.isGroup()) {
-                mFilteredConversations.add(uiConversation);
-            }
-        }
+        mUIConversations.setOnlyGroups(mOnlyGroups);
 
         if (mMessagesSearchView != null && mMessagesSearchView.getQuery().toString().isEmpty()) {
             updateRestrictionView();
         }
 
-        if (scrollToTop && !mFilteredConversations.isEmpty()) {
+        if (scrollToTop && mUIConversations.size() > 0) {
             mUIConversationRecyclerView.scrollToPosition(0);
         }
 
@@ -1764,7 +1837,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         }
     }
 
-    private void searchMessage(String text) {
+    private void searchMessage(@NonNull String text, boolean narrowing) {
         if (DEBUG) {
             Log.d(LOG_TAG, "searchMessage");
         }
@@ -1777,7 +1850,8 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
         if (mNoResultFoundTitleView != null) {
             mNoResultFoundTitleView.setText(String.format(getString(R.string.conversations_fragment_no_result_found), text));
         }
-        
+
+        // When the text is narrowing, the name index filters its previous results again.
         searchDescriptor(text);
     }
 
@@ -1880,7 +1954,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
                         @Override
                         public boolean onQueryTextChange(String newText) {
 
-                            searchMessage(newText);
+                            mSearch.setText(newText);
 
                             return false;
                         }
@@ -1902,7 +1976,7 @@ public class ConversationsFragment extends TabbarFragment implements ChatService
                 return false;
             }
 
-        }, getViewLifecycleOwner());
+        }, getViewLifecycleOwner(), Lifecycle.State.RESUMED);
     }
 
     private void initTabs() {
@@ -50,7 +50,10 @@ import androidx.core.content.res.ResourcesCompat;
 import androidx.core.graphics.ColorUtils;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
+import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -1228,8 +1231,8 @@ public class MainActivity extends AbstractTwinmeActivity implements MainService.
                 }
 
                 // Get the ProfileFragment from the fragment manager if we can because it could create an
-                // instance of ProfileFragment during main activity restore.  Other fragments don't have
-                // the issue because they don't save any state.
+                // instance of ProfileFragment during main activity restore.  The other tab fragments are also
+                // kept by the fragment manager while they are hidden.
                 ProfileFragment profileFragment = (ProfileFragment) getSupportFragmentManager().findFragmentByTag(PROFILE_FRAGMENT_TAG);
                 if (profileFragment == null) {
                     profileFragment = new ProfileFragment();
@@ -1247,7 +1250,10 @@ public class MainActivity extends AbstractTwinmeActivity implements MainService.
                     mCallsNotificationView.setVisibility(View.GONE);
                 }
                 conversationsToolbar.setVisibility(View.GONE);
-                CallsFragment callsFragment = new CallsFragment();
+                CallsFragment callsFragment = (CallsFragment) getSupportFragmentManager().findFragmentByTag(CALLS_FRAGMENT_TAG);
+                if (callsFragment == null) {
+                    callsFragment = new CallsFragment();
+                }
                 showFragment(callsFragment, CALLS_FRAGMENT_TAG);
 
             } else if (currentTab == R.id.navigation_contacts) {
@@ -1261,7 +1267,10 @@ public class MainActivity extends AbstractTwinmeActivity implements MainService.
                 } else {
                     mNotificationView.setVisibility(View.GONE);
                 }
-                ContactsFragment contactsFragment = new ContactsFragment();
+                ContactsFragment contactsFragment = (ContactsFragment) getSupportFragmentManager().findFragmentByTag(CONTACTS_FRAGMENT_TAG);
+                if (contactsFragment == null) {
+                    contactsFragment = new ContactsFragment();
+                }
                 showFragment(contactsFragment, CONTACTS_FRAGMENT_TAG);
 
             } else if (currentTab == R.id.navigation_chat) {
@@ -1275,7 +1284,10 @@ public class MainActivity extends AbstractTwinmeActivity implements MainService.
                 } else {
                     mConversationsNotificationView.setVisibility(View.GONE);
                 }
-                ConversationsFragment conversationsFragment = new ConversationsFragment();
+                ConversationsFragment conversationsFragment = (ConversationsFragment) getSupportFragmentManager().findFragmentByTag(CHAT_FRAGMENT_TAG);
+                if (conversationsFragment == null) {
+                    conversationsFragment = new ConversationsFragment();
+                }
                 showFragment(conversationsFragment, CHAT_FRAGMENT_TAG);
 
             } else if (currentTab == R.id.navigation_notifications) {
@@ -1289,7 +1301,10 @@ public class MainActivity extends AbstractTwinmeActivity implements MainService.
                 } else {
                     mNotificationView.setVisibility(View.GONE);
                 }
-                NotificationsFragment notificationsFragment = new NotificationsFragment();
+                NotificationsFragment notificationsFragment = (NotificationsFragment) getSupportFragmentManager().findFragmentByTag(NOTIFICATIONS_FRAGMENT_TAG);
+                if (notificationsFragment == null) {
+                    notificationsFragment = new NotificationsFragment();
+                }
                 showFragment(notificationsFragment, NOTIFICATIONS_FRAGMENT_TAG);
             }
 
@@ -1326,10 +1341,28 @@ public class MainActivity extends AbstractTwinmeActivity implements MainService.
     }
 
     private void showFragment(@NonNull TabbarFragment fragment, @NonNull String tag) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "showFragment: tag=" + tag);
+        }
+
+        // Keep the tab fragments with their services and lists: the other tabs are hidden and limited to
+        // the STARTED state so that their menu is removed, and they are shown again when they are selected.
         FragmentManager fragmentManager = getSupportFragmentManager();
-        fragmentManager.beginTransaction()
-                .replace(R.id.twinme_navigation_frame_layout, fragment, tag)
-                .commit();
+        FragmentTransaction transaction = fragmentManager.beginTransaction();
+        for (Fragment lFragment : fragmentManager.getFragments()) {
+            if (lFragment != fragment && lFragment instanceof TabbarFragment && !lFragment.isHidden()) {
+                transaction.hide(lFragment);
+                transaction.setMaxLifecycle(lFragment, Lifecycle.State.STARTED);
+            }
+        }
+
+        if (fragment.isAdded()) {
+            transaction.show(fragment);
+        } else {
+            transaction.add(R.id.twinme_navigation_frame_layout, fragment, tag);
+        }
+        transaction.setMaxLifecycle(fragment, Lifecycle.State.RESUMED);
+        transaction.commit();
 
         // Keep a weak reference to the active fragment to forward the request permissions.
         mCurrentFragment = new WeakReference<>(fragment);
@@ -80,7 +80,8 @@ class TabbarFragment extends Fragment {
 
     public void setEnabled(@Nullable MenuItem menuItem, boolean enabled) {
 
-        if (menuItem != null) {
+        // A hidden tab has no menu: the item could belong to the menu of the visible tab.
+        if (menuItem != null && !isHidden()) {
             View actionView = menuItem.getActionView();
             if (actionView != null) {
                 actionView.setAlpha(enabled ? 1.0f : 0.5f);
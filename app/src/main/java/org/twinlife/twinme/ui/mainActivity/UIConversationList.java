@@ -0,0 +1,339 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.ui.mainActivity;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sorted list of the conversations displayed by the conversations fragment.
+ *
+ * Conversations are sorted on the date of their last message (most recent first), then on the contact usage
+ * score, the name and the conversation id so that the order is deterministic.  The sort key of a conversation
+ * is recorded when it is inserted: the conversation is found again with a binary search on that key even if its
+ * last descriptor or its contact was changed in the meantime, and it is moved to its new position with
+ * a second binary search.  The list maintains the filtered view displayed by the adapter (all the conversations
+ * or only the groups) and reports the precise insert, remove, move and change operations made on that view.
+ * This class is not thread safe and must be used from the UI thread.
+ */
+final class UIConversationList {
+
+    private static final class Key implements Comparable<Key> {
+        final long lastMessageDate;
+        final double usageScore;
+        @NonNull
+        final String name;
+        @NonNull
+        final UUID conversationId;
+
+        Key(@NonNull UIConversation uiConversation) {
+
+            lastMessageDate = uiConversation.getLastMessageDate();
+            usageScore = uiConversation.getUsageScore();
+            name = uiConversation.getName() == null ? "" : uiConversation.getName();
+            conversationId = uiConversation.getConversationId();
+        }
+
+        @Override
+        public int compareTo(@NonNull Key key) {
+
+            if (lastMessageDate != key.lastMessageDate) {
+                return Long.compare(key.lastMessageDate, lastMessageDate);
+            }
+
+            final int result = Double.compare(key.usageScore, usageScore);
+            if (result != 0) {
+                return result;
+            }
+
+            final int nameResult = name.compareToIgnoreCase(key.name);
+            if (nameResult != 0) {
+                return nameResult;
+            }
+
+            return conversationId.compareTo(key.conversationId);
+        }
+    }
+
+    private final ArrayList<UIConversation> mConversations = new ArrayList<>();
+    private final ArrayList<UIConversation> mVisibleConversations = new ArrayList<>();
+    private final Map<UUID, Key> mKeys = new HashMap<>();
+    private final ConversationSearchIndex mSearchIndex = new ConversationSearchIndex();
+    @Nullable
+    private ListUpdateCallback mCallback;
+    private boolean mOnlyGroups;
+
+    /**
+     * Set the callback which receives the changes made on the visible conversations.
+     *
+     * @param callback the callback or null.
+     */
+    void setCallback(@Nullable ListUpdateCallback callback) {
+
+        mCallback = callback;
+    }
+
+    /**
+     * Set the filter of the visible conversations.  The callback is not called and the adapter must be
+     * refreshed entirely.
+     *
+     * @param onlyGroups when true only the group conversations are visible.
+     */
+    void setOnlyGroups(boolean onlyGroups) {
+
+        mOnlyGroups = onlyGroups;
+        mVisibleConversations.clear();
+        for (UIConversation uiConversation : mConversations) {
+            if (isVisible(uiConversation)) {
+                mVisibleConversations.add(uiConversation);
+            }
+        }
+    }
+
+    /**
+     * Get the number of visible conversations.
+     *
+     * @return the number of visible conversations.
+     */
+    int size() {
+
+        return mVisibleConversations.size();
+    }
+
+    /**
+     * Get the visible conversation at the given position.
+     *
+     * @param position the position in the visible conversations.
+     * @return the conversation.
+     */
+    @NonNull
+    UIConversation get(int position) {
+
+        return mVisibleConversations.get(position);
+    }
+
+    /**
+     * Check if there is no conversation, visible or not.
+     *
+     * @return true if the list is empty.
+     */
+    boolean isEmpty() {
+
+        return mConversations.isEmpty();
+    }
+
+    /**
+     * Check if the conversation is in the list.
+     *
+     * @param conversationId the conversation id.
+     * @return true if the conversation is in the list.
+     */
+    boolean contains(@NonNull UUID conversationId) {
+
+        return mKeys.containsKey(conversationId);
+    }
+
+    /**
+     * Get all the conversations, visible or not, in their display order.
+     *
+     * @return a read-only view on the conversations.
+     */
+    @NonNull
+    List<UIConversation> getConversations() {
+
+        return Collections.unmodifiableList(mConversations);
+    }
+
+    /**
+     * Find the conversations whose name contains the query.
+     *
+     * @param query the text to search.
+     * @return the conversations ranked on the position of the query in their name.
+     */
+    @NonNull
+    List<UIConversation> findByName(@NonNull String query) {
+
+        return mSearchIndex.find(query);
+    }
+
+    /**
+     * Replace all the conversations.  The callback is not called and the adapter must be refreshed entirely.
+     *
+     * @param conversations the new conversations.
+     */
+    void setConversations(@NonNull Collection<UIConversation> conversations) {
+
+        mConversations.clear();
+        mKeys.clear();
+        mSearchIndex.clear();
+        for (UIConversation uiConversation : conversations) {
+            if (mKeys.put(uiConversation.getConversationId(), new Key(uiConversation)) == null) {
+                mConversations.add(uiConversation);
+                mSearchIndex.put(uiConversation);
+            }
+        }
+        Collections.sort(mConversations, (first, second) -> getKey(first).compareTo(getKey(second)));
+        setOnlyGroups(mOnlyGroups);
+    }
+
+    /**
+     * Insert the conversation or move it to its new position after its last descriptor or its contact
+     * was changed.  The conversation replaces the conversation which has the same id.
+     *
+     * @param uiConversation the conversation.
+     */
+    void update(@NonNull UIConversation uiConversation) {
+
+        final UUID conversationId = uiConversation.getConversationId();
+        final Key key = new Key(uiConversation);
+        final Key oldKey = mKeys.get(conversationId);
+        final UIConversation lastVisible = getLastVisible();
+
+        // Remove the conversation with its old key before the new key is recorded.
+        int oldPosition = -1;
+        if (oldKey != null) {
+            final int index = search(mConversations, oldKey);
+            if (index >= 0) {
+                mConversations.remove(index);
+            }
+            oldPosition = search(mVisibleConversations, oldKey);
+            if (oldPosition >= 0) {
+                mVisibleConversations.remove(oldPosition);
+            }
+        }
+        mKeys.put(conversationId, key);
+        mSearchIndex.put(uiConversation);
+
+        mConversations.add(-(search(mConversations, key) + 1), uiConversation);
+        int newPosition = -1;
+        if (isVisible(uiConversation)) {
+            newPosition = -(search(mVisibleConversations, key) + 1);
+            mVisibleConversations.add(newPosition, uiConversation);
+        }
+
+        if (mCallback != null) {
+            if (oldPosition >= 0 && newPosition >= 0) {
+                if (oldPosition != newPosition) {
+                    mCallback.onMoved(oldPosition, newPosition);
+                }
+                mCallback.onChanged(newPosition, 1, null);
+            } else if (oldPosition >= 0) {
+                mCallback.onRemoved(oldPosition, 1);
+            } else if (newPosition >= 0) {
+                mCallback.onInserted(newPosition, 1);
+            }
+            notifyLastVisibleChanged(lastVisible);
+        }
+    }
+
+    /**
+     * Remove the conversation.
+     *
+     * @param conversationId the conversation id.
+     */
+    void remove(@NonNull UUID conversationId) {
+
+        final Key key = mKeys.get(conversationId);
+        if (key == null) {
+            return;
+        }
+
+        final UIConversation lastVisible = getLastVisible();
+        final int index = search(mConversations, key);
+        if (index >= 0) {
+            mConversations.remove(index);
+        }
+        final int position = search(mVisibleConversations, key);
+        mKeys.remove(conversationId);
+        mSearchIndex.remove(conversationId);
+        if (position >= 0) {
+            mVisibleConversations.remove(position);
+            if (mCallback != null) {
+                mCallback.onRemoved(position, 1);
+                notifyLastVisibleChanged(lastVisible);
+            }
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    private boolean isVisible(@NonNull UIConversation uiConversation) {
+
+        return !mOnlyGroups || uiConversation.getContact().isGroup();
+    }
+
+    @NonNull
+    private Key getKey(@NonNull UIConversation uiConversation) {
+
+        final Key key = mKeys.get(uiConversation.getConversationId());
+        return key != null ? key : new Key(uiConversation);
+    }
+
+    @Nullable
+    private UIConversation getLastVisible() {
+
+        return mVisibleConversations.isEmpty() ? null : mVisibleConversations.get(mVisibleConversations.size() - 1);
+    }
+
+    /**
+     * The last visible conversation is displayed without a separator: refresh the old and the new last
+     * conversations when it changes.
+     */
+    private void notifyLastVisibleChanged(@Nullable UIConversation lastVisible) {
+
+        final UIConversation newLastVisible = getLastVisible();
+        if (mCallback == null || newLastVisible == lastVisible) {
+            return;
+        }
+
+        if (lastVisible != null) {
+            final Key key = mKeys.get(lastVisible.getConversationId());
+            final int position = key == null ? -1 : search(mVisibleConversations, key);
+            if (position >= 0 && mVisibleConversations.get(position) == lastVisible) {
+                mCallback.onChanged(position, 1, null);
+            }
+        }
+        if (newLastVisible != null) {
+            mCallback.onChanged(mVisibleConversations.size() - 1, 1, null);
+        }
+    }
+
+    /**
+     * Binary search of the key in the sorted conversations.
+     *
+     * @return the index of the conversation or (-(insertion point) - 1) when it is not found.
+     */
+    private int search(@NonNull List<UIConversation> conversations, @NonNull Key key) {
+
+        int low = 0;
+        int high = conversations.size() - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int result = getKey(conversations.get(middle)).compareTo(key);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+
+                return middle;
+            }
+        }
+
+        return -(low + 1);
+    }
+}
@@ -72,6 +72,7 @@ import org.twinlife.twinme.ui.users.UIContact;
 import org.twinlife.twinme.ui.users.UIContactListAdapter;
 import org.twinlife.twinme.ui.users.UISelectableContact;
 import org.twinlife.twinme.utils.FileInfo;
+import org.twinlife.twinme.utils.SearchDebouncer;
 import org.twinlife.twinme.utils.ShareUtils;
 import org.twinlife.twinme.utils.async.Loader;
 import org.twinlife.twinme.utils.async.LoaderListener;
@@ -111,6 +112,7 @@ public class ShareActivity extends BaseItemActivity implements ShareService.Obse
     private EditText mEditText;
     private final List<UISelectableContact> mUIContacts = new ArrayList<>();
     private final List<UISelectableContact> mUIGroups = new ArrayList<>();
+    private final SearchDebouncer mSearch = new SearchDebouncer(this::findContactsAndGroupsByName);
     private final List<FileInfo> mSharedUri = new ArrayList<>();
     private final List<UIContact> mSelectedUIContact = new ArrayList<>();
 
@@ -241,6 +243,7 @@ public class ShareActivity extends BaseItemActivity implements ShareService.Obse
             mAsyncItemLoader.stop();
         }
 
+        mSearch.cancel();
         if (mShareService != null) {
             mShareService.dispose();
         }
@@ -284,6 +287,11 @@ public class ShareActivity extends BaseItemActivity implements ShareService.Obse
             Log.d(LOG_TAG, "onGetContacts: contacts=" + contacts);
         }
 
+        // Ignore the contacts found for a previous search.
+        if (!mSearch.isCurrentResult()) {
+            return;
+        }
+
         mUIContacts.clear();
         for (Contact contact : contacts) {
             mShareListAdapter.updateUIContact(contact, null);
@@ -332,6 +340,11 @@ public class ShareActivity extends BaseItemActivity implements ShareService.Obse
             Log.d(LOG_TAG, "onGetGroups: groups=" + groups);
         }
 
+        // Ignore the groups found for a previous search.
+        if (!mSearch.isCurrentResult()) {
+            return;
+        }
+
         mUIGroups.clear();
 
         if (groups.isEmpty()) {
@@ -749,7 +762,7 @@ public class ShareActivity extends BaseItemActivity implements ShareService.Obse
                 } else {
                     mClearSearchView.setVisibility(View.GONE);
                 }
-                mShareService.findContactsAndGroupsByName(s.toString());
+                mSearch.setText(s.toString());
             }
 
             @Override
@@ -851,6 +864,17 @@ public class ShareActivity extends BaseItemActivity implements ShareService.Obse
         mShareService.pushFile(file, filename, type, false, allowCopy, null, null, 0);
     }
 
+    private void findContactsAndGroupsByName(@NonNull String text, boolean narrowing) {
+        if (DEBUG) {
+            Log.d(LOG_TAG, "findContactsAndGroupsByName: " + text);
+        }
+
+        // The service reports the contacts and then the groups found.
+        mShareService.findContactsAndGroupsByName(text);
+        mSearch.expectResult();
+        mSearch.expectResult();
+    }
+
     @SuppressLint("NotifyDataSetChanged")
     private void notifyShareListChanged() {
         if (DEBUG) {
@@ -45,6 +45,7 @@ import org.twinlife.twinme.ui.Intents;
 import org.twinlife.twinme.ui.conversationActivity.MusicItem;
 import org.twinlife.twinme.utils.FileInfo;
 import org.twinlife.twinme.utils.MediaMetaData;
+import org.twinlife.twinme.utils.SearchDebouncer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -66,6 +67,7 @@ public class StreamingAudioActivity extends AbstractTwinmeActivity {
     private TextView mNoMusicTextView;
     private final List<MusicItem> mMusicItems = new ArrayList<>();
     private final List<MusicItem> mFilteredMusicItems = new ArrayList<>();
+    private final SearchDebouncer mSearch = new SearchDebouncer(this::searchSongs);
     private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
     private MusicItem mSelectedMusicItem;
     private Handler mHandler;
@@ -130,6 +132,7 @@ public class StreamingAudioActivity extends AbstractTwinmeActivity {
 
         mExecutor.shutdown();
         mHandler.removeCallbacksAndMessages(null);
+        mSearch.cancel();
         super.onDestroy();
     }
 
@@ -248,7 +251,7 @@ public class StreamingAudioActivity extends AbstractTwinmeActivity {
                     mClearSearchView.setVisibility(View.GONE);
                 }
 
-                searchSongs(s.toString());
+                mSearch.setText(s.toString());
             }
 
             @Override
@@ -378,7 +381,7 @@ public class StreamingAudioActivity extends AbstractTwinmeActivity {
         resetSongs();
     }
 
-    private void searchSongs(String searchText) {
+    private void searchSongs(@NonNull String searchText, boolean narrowing) {
         if (DEBUG) {
             Log.d(LOG_TAG, "searchSongs");
         }
@@ -388,10 +391,13 @@ public class StreamingAudioActivity extends AbstractTwinmeActivity {
             return;
         }
 
+        // A longer text can only match the songs found for the previous text.
+        final List<MusicItem> musicItems = narrowing ? new ArrayList<>(mFilteredMusicItems) : mMusicItems;
+        final String text = searchText.toLowerCase();
         mFilteredMusicItems.clear();
 
-        for (MusicItem musicItem : mMusicItems) {
-            if (musicItem.isMediaMetaDataContains(searchText.toLowerCase())) {
+        for (MusicItem musicItem : musicItems) {
+            if (musicItem.isMediaMetaDataContains(text)) {
                 mFilteredMusicItems.add(musicItem);
             }
         }
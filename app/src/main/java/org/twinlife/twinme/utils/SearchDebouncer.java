@@ -0,0 +1,155 @@
+/*
+ *  Copyright (c) 2026 twinlife SA.
+ *  SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package org.twinlife.twinme.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Type-ahead search of a list screen.
+ *
+ * The text typed in a search field is searched once the user stops typing for a short delay instead of running
+ * a query for each character.  Clearing the field is applied immediately and the same text is never searched
+ * twice in a row.  The observer is told when the new text extends the previous one so that it can narrow the
+ * previous results in memory.
+ *
+ * The twinme services report the search results in the order of the requests but without the searched text:
+ * the observer declares the results it expects with expectResult() when it sends a request, and checks with
+ * isCurrentResult() that a result belongs to the last searched text before using it.  The results of the
+ * previous texts which are still in progress are ignored.  A result which was not requested (a full reload of
+ * the list by the service) is always current.  This class must be used from the UI thread.
+ */
+public final class SearchDebouncer {
+    private static final String LOG_TAG = "SearchDebouncer";
+    private static final boolean DEBUG = false;
+
+    public static final long DEFAULT_DELAY = 250;
+
+    public interface Observer {
+
+        /**
+         * Search the text.
+         *
+         * @param text the text to search.
+         * @param narrowing true when the text extends the previous searched text.
+         */
+        void onSearch(@NonNull String text, boolean narrowing);
+    }
+
+    private final long mDelay;
+    @NonNull
+    private final Observer mObserver;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mSearch = this::search;
+    @NonNull
+    private String mPendingText = "";
+    @NonNull
+    private String mText = "";
+
+    // Results expected from the requests which were sent and results received.
+    private int mExpectedCount = 0;
+    private int mReceivedCount = 0;
+    // The number of results expected before the request for the current text was sent.
+    private int mCurrentStart = 0;
+
+    public SearchDebouncer(@NonNull Observer observer) {
+
+        this(DEFAULT_DELAY, observer);
+    }
+
+    public SearchDebouncer(long delay, @NonNull Observer observer) {
+
+        mDelay = delay;
+        mObserver = observer;
+    }
+
+    /**
+     * The text of the search field was changed: search it after the delay.
+     *
+     * @param text the new text.
+     */
+    public void setText(@NonNull String text) {
+
+        mPendingText = text;
+        mHandler.removeCallbacks(mSearch);
+        if (text.isEmpty()) {
+            search();
+        } else {
+            mHandler.postDelayed(mSearch, mDelay);
+        }
+    }
+
+    /**
+     * Cancel the search which is not yet started and ignore the results of the requests in progress.
+     */
+    public void cancel() {
+
+        mHandler.removeCallbacks(mSearch);
+        mCurrentStart = mExpectedCount;
+    }
+
+    /**
+     * Get the last searched text.
+     *
+     * @return the last searched text.
+     */
+    @NonNull
+    public String getText() {
+
+        return mText;
+    }
+
+    /**
+     * A request was sent for the current text: one more result is expected.
+     */
+    public void expectResult() {
+
+        mExpectedCount++;
+    }
+
+    /**
+     * A result was received: check if it belongs to the current text.
+     *
+     * @return true if the result must be used.
+     */
+    public boolean isCurrentResult() {
+
+        if (mReceivedCount >= mExpectedCount) {
+            // The result was not requested: this is a full reload.
+            return true;
+        }
+
+        mReceivedCount++;
+        if (DEBUG && mReceivedCount <= mCurrentStart) {
+            Log.d(LOG_TAG, "ignore result " + mReceivedCount + " of a previous search");
+        }
+        return mReceivedCount > mCurrentStart;
+    }
+
+    //
+    // Private methods
+    //
+
+    private void search() {
+
+        final String text = mPendingText;
+        if (text.equals(mText)) {
+            return;
+        }
+
+        if (DEBUG) {
+            Log.d(LOG_TAG, "search: " + text);
+        }
+
+        final boolean narrowing = !mText.isEmpty() && text.startsWith(mText);
+        mText = text;
+        mCurrentStart = mExpectedCount;
+        mObserver.onSearch(text, narrowing);
+    }
+}